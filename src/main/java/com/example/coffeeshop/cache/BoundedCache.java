@@ -0,0 +1,319 @@
+package com.example.coffeeshop.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Потокобезопасный кэш с ограничением по весу, TTL и вытеснением в стиле W-TinyLFU.
+ *
+ * <p>Чтение идёт без блокировок через {@link ConcurrentHashMap}; обращения складываются в
+ * полосатые буферы и применяются к LRU-очередям под общей блокировкой при записи.
+ * Новые записи попадают в маленькое окно, а при его переполнении кандидат из окна
+ * конкурирует с жертвой из основной области по частоте из {@link FrequencySketch}.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int READ_BUFFER_STRIPES = 8;
+    private static final int READ_BUFFER_SIZE = 64;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ToIntFunction<V> weigher;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long ttlNanos;
+    private final FrequencySketch sketch;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final List<Queue<Node<K, V>>> readBuffers;
+    // Guarded by evictionLock
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<K, V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    // Порядок записи для TTL: интрусивный список, узел убирается из него вместе с записью
+    private Node<K, V> writeFirst;
+    private Node<K, V> writeLast;
+    private long windowWeight;
+    private long mainWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    /** Constructor. */
+    public BoundedCache(long maximumWeight, Duration ttl, ToIntFunction<V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.ttlNanos = (ttl == null || ttl.isZero() || ttl.isNegative()) ? 0 : ttl.toNanos();
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(maximumWeight);
+        this.readBuffers = new ArrayList<>(READ_BUFFER_STRIPES);
+        for (int i = 0; i < READ_BUFFER_STRIPES; i++) {
+            readBuffers.add(new ArrayBlockingQueue<>(READ_BUFFER_SIZE));
+        }
+    }
+
+    /** Returns cached value or null. */
+    public V get(K key) {
+        sketch.increment(key);
+        Node<K, V> node = data.get(key);
+        if (node == null || isExpired(node, System.nanoTime())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        recordRead(node);
+        return node.value;
+    }
+
+    /** Puts value; entries heavier than the whole cache are not stored and drop the previous value. */
+    public void put(K key, V value) {
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        if (weight > maximumWeight) {
+            // Старое значение устарело — оставлять его под ключом нельзя
+            invalidate(key);
+            rejections.increment();
+            return;
+        }
+        Node<K, V> node = new Node<>(key, value, weight, System.nanoTime());
+
+        evictionLock.lock();
+        try {
+            drainReadBuffers();
+            Node<K, V> old = data.put(key, node);
+            if (old != null) {
+                removeFromPolicy(old);
+            }
+            node.inWindow = true;
+            window.put(key, node);
+            windowWeight += weight;
+            if (ttlNanos > 0) {
+                linkWrite(node);
+            }
+
+            expireEntries();
+            evictEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Removes the entry. */
+    public void invalidate(K key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                removeFromPolicy(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Removes the entries under a single lock acquisition. */
+    public void invalidateAll(Iterable<? extends K> keys) {
+        evictionLock.lock();
+        try {
+            for (K key : keys) {
+                Node<K, V> node = data.remove(key);
+                if (node != null) {
+                    removeFromPolicy(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Removes all entries. */
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            main.clear();
+            writeFirst = null;
+            writeLast = null;
+            windowWeight = 0;
+            mainWeight = 0;
+            for (Queue<Node<K, V>> buffer : readBuffers) {
+                buffer.clear();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /** Statistics snapshot. */
+    public CacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        long weight;
+        evictionLock.lock();
+        try {
+            weight = windowWeight + mainWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+        return new CacheStats(hitCount, missCount, requests == 0 ? 1.0 : (double) hitCount / requests,
+                evictions.sum(), expirations.sum(), rejections.sum(), data.size(), weight, maximumWeight);
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return ttlNanos > 0 && now - node.writeTime >= ttlNanos;
+    }
+
+    private void recordRead(Node<K, V> node) {
+        Queue<Node<K, V>> buffer = readBuffers.get((int) (Thread.currentThread().threadId() & (READ_BUFFER_STRIPES - 1)));
+        if (!buffer.offer(node) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffers() {
+        for (Queue<Node<K, V>> buffer : readBuffers) {
+            Node<K, V> node;
+            while ((node = buffer.poll()) != null) {
+                // get в access-ordered LinkedHashMap переносит запись в хвост LRU
+                (node.inWindow ? window : main).get(node.key);
+            }
+        }
+    }
+
+    private void expireEntries() {
+        if (ttlNanos == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        while (writeFirst != null && isExpired(writeFirst, now)) {
+            Node<K, V> node = writeFirst;
+            unlinkWrite(node);
+            if (data.remove(node.key, node)) {
+                removeFromPolicy(node);
+                expirations.increment();
+            }
+        }
+    }
+
+    private void evictEntries() {
+        long mainMaximum = maximumWeight - windowMaximum;
+        while (windowWeight > windowMaximum) {
+            Node<K, V> candidate = pollEldest(window);
+            windowWeight -= candidate.weight;
+            candidate.inWindow = false;
+
+            while (candidate != null && mainWeight + candidate.weight > mainMaximum) {
+                Node<K, V> victim = peekEldest(main);
+                if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    evict(victim);
+                } else {
+                    // Кандидат реже жертвы — не пускаем его в основную область
+                    data.remove(candidate.key, candidate);
+                    unlinkWrite(candidate);
+                    evictions.increment();
+                    rejections.increment();
+                    candidate = null;
+                }
+            }
+            if (candidate != null) {
+                main.put(candidate.key, candidate);
+                mainWeight += candidate.weight;
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        data.remove(node.key, node);
+        removeFromPolicy(node);
+        evictions.increment();
+    }
+
+    private void removeFromPolicy(Node<K, V> node) {
+        unlinkWrite(node);
+        if (node.inWindow) {
+            if (window.remove(node.key, node)) {
+                windowWeight -= node.weight;
+            }
+        } else if (main.remove(node.key, node)) {
+            mainWeight -= node.weight;
+        }
+    }
+
+    private void linkWrite(Node<K, V> node) {
+        node.writePrev = writeLast;
+        if (writeLast == null) {
+            writeFirst = node;
+        } else {
+            writeLast.writeNext = node;
+        }
+        writeLast = node;
+    }
+
+    /** Идемпотентно: узел, которого нет в списке, не трогается. */
+    private void unlinkWrite(Node<K, V> node) {
+        if (node.writePrev == null && writeFirst != node) {
+            return;
+        }
+        if (node.writePrev == null) {
+            writeFirst = node.writeNext;
+        } else {
+            node.writePrev.writeNext = node.writeNext;
+        }
+        if (node.writeNext == null) {
+            writeLast = node.writePrev;
+        } else {
+            node.writeNext.writePrev = node.writePrev;
+        }
+        node.writePrev = null;
+        node.writeNext = null;
+    }
+
+    private static <K, V> Node<K, V> peekEldest(LinkedHashMap<K, Node<K, V>> map) {
+        Iterator<Map.Entry<K, Node<K, V>>> iterator = map.entrySet().iterator();
+        return iterator.hasNext() ? iterator.next().getValue() : null;
+    }
+
+    private static <K, V> Node<K, V> pollEldest(LinkedHashMap<K, Node<K, V>> map) {
+        Iterator<Map.Entry<K, Node<K, V>>> iterator = map.entrySet().iterator();
+        Node<K, V> node = iterator.next().getValue();
+        iterator.remove();
+        return node;
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final int weight;
+        private final long writeTime;
+        // Guarded by evictionLock
+        private boolean inWindow;
+        private Node<K, V> writePrev;
+        private Node<K, V> writeNext;
+
+        private Node(K key, V value, int weight, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+}
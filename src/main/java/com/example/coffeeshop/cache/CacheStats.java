@@ -0,0 +1,14 @@
+package com.example.coffeeshop.cache;
+
+/** Снимок статистики кэша. */
+public record CacheStats(
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount,
+        long expirationCount,
+        long rejectedCount,
+        long size,
+        long weight,
+        long maximumWeight) {
+}
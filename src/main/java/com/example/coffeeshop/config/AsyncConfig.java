@@ -1,11 +1,29 @@
 package com.example.coffeeshop.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 /**Config.*/
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
-}
 
+    /** Пул задач выгрузки логов: фиксированное число потоков и ограниченная очередь. */
+    @Bean
+    public ThreadPoolTaskExecutor logJobExecutor(@Value("${logs.jobs.threads:2}") int threads,
+                                                 @Value("${logs.jobs.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("log-job-");
+        // Незавершённые выгрузки при остановке не нужны: файлы временные
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -1,9 +1,10 @@
 package com.example.coffeeshop.config;
 
+import com.example.coffeeshop.cache.BoundedCache;
 import com.example.coffeeshop.dto.DisplayOrderDto;
-import java.util.LinkedHashMap;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,16 +12,11 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class CacheConfig {
 
-    /** Bean. */
+    /** Кэш фильтра заказов по номеру телефона; вес записи — количество заказов в ней. */
     @Bean
-    public Map<String, List<DisplayOrderDto>> orderFilterCache() {
-        return new LinkedHashMap<>(16, 0.75f, true) {
-            private static final int MAX_ENTRIES = 10;
-
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, List<DisplayOrderDto>> eldest) {
-                return size() > MAX_ENTRIES;
-            }
-        };
+    public BoundedCache<String, List<DisplayOrderDto>> orderFilterCache(
+            @Value("${cache.order-filter.max-weight:100000}") long maxWeight,
+            @Value("${cache.order-filter.ttl:10m}") Duration ttl) {
+        return new BoundedCache<>(maxWeight, ttl, List::size);
     }
 }
@@ -0,0 +1,52 @@
+package com.example.coffeeshop.controller;
+
+import com.example.coffeeshop.dto.CoffeeSalesDto;
+import com.example.coffeeshop.service.SalesAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Analytics controller. */
+@Tag(name = "Аналитика", description = "Продажи кофе в реальном времени")
+@Validated
+@RestController
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    /** Constructor. */
+    @Autowired
+    public AnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    /** Top coffees. */
+    @Operation(summary = "Самые продаваемые кофе")
+    @GetMapping("/top-coffees")
+    public List<CoffeeSalesDto> getTopCoffees(
+            @Parameter(description = "Количество позиций") @RequestParam(defaultValue = "10") @Min(1) @Max(1000)
+            int limit) {
+        return salesAnalyticsService.getTopCoffees(limit);
+    }
+
+    /** Coffee sales. */
+    @Operation(summary = "Продажи и выручка по кофе")
+    @GetMapping("/coffees/{id}")
+    public ResponseEntity<CoffeeSalesDto> getCoffeeSales(@PathVariable @Min(1) Long id) {
+        return salesAnalyticsService.getCoffeeSales(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -1,21 +1,41 @@
 package com.example.coffeeshop.controller;
 
 import com.example.coffeeshop.dto.CoffeeDto;
+import com.example.coffeeshop.dto.CoffeeImportResultDto;
+import com.example.coffeeshop.dto.CoffeeRecommendationDto;
+import com.example.coffeeshop.dto.CoffeeSearchResultDto;
 import com.example.coffeeshop.dto.CoffeeUpdateDto;
 import com.example.coffeeshop.dto.CoffeeWithOrdersDto;
+import com.example.coffeeshop.dto.CursorPageDto;
+import com.example.coffeeshop.service.CoffeeImportService;
+import com.example.coffeeshop.service.CoffeeSearchService;
 import com.example.coffeeshop.service.CoffeeService;
+import com.example.coffeeshop.service.MenuCatalogService;
+import com.example.coffeeshop.service.RecommendationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /** Coffee controller. */
 @Tag(name = "Кофе", description = "Управление кофе")
@@ -26,18 +46,63 @@ import org.springframework.web.bind.annotation.*;
 public class CoffeeController {
 
     private final CoffeeService coffeeService;
+    private final CoffeeImportService coffeeImportService;
+    private final CoffeeSearchService coffeeSearchService;
+    private final RecommendationService recommendationService;
 
     /** Constructor. */
     @Autowired
-    public CoffeeController(CoffeeService coffeeService) {
+    public CoffeeController(CoffeeService coffeeService, CoffeeImportService coffeeImportService,
+                            CoffeeSearchService coffeeSearchService, RecommendationService recommendationService) {
         this.coffeeService = coffeeService;
+        this.coffeeImportService = coffeeImportService;
+        this.coffeeSearchService = coffeeSearchService;
+        this.recommendationService = recommendationService;
     }
 
-    /** Get all coffees. */
-    @Operation(summary = "Получить список всех кофе")
+    /** Get whole menu. */
+    @Operation(summary = "Получить всё меню",
+            description = "Отдаётся из снимка в памяти; поддерживает ETag/If-None-Match (304, если меню не менялось)")
+    @GetMapping(params = {"!after", "!limit"})
+    public ResponseEntity<byte[]> getMenu(WebRequest request) {
+        MenuCatalogService.Snapshot menu = coffeeService.getMenu();
+        if (request.checkNotModified(menu.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(menu.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(menu.json());
+    }
+
+    /** Get coffees page. */
+    @Operation(summary = "Получить страницу кофе",
+            description = "Keyset-пагинация: курсор следующей страницы возвращается в заголовке X-Next-Cursor")
     @GetMapping
-    public List<CoffeeDto> getAllCoffees() {
-        return coffeeService.getAllCoffees();
+    public ResponseEntity<List<CoffeeDto>> getAllCoffees(
+            @Parameter(description = "ID последнего кофе предыдущей страницы") @RequestParam(required = false)
+            @Min(0) Long after,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "100") @Min(1) @Max(1000)
+            int limit) {
+        CursorPageDto<CoffeeDto> page = coffeeService.getCoffeesPage(after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPageDto.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
+    }
+
+    /** Search coffees. */
+    @Operation(summary = "Поиск кофе по названию и типу",
+            description = "Поиск по индексу в памяти: префиксы для автодополнения и нечёткое совпадение при опечатках; "
+                    + "возвращает результаты по убыванию релевантности и количество совпадений по типам")
+    @GetMapping("/search")
+    public ResponseEntity<CoffeeSearchResultDto> searchCoffees(
+            @Parameter(description = "Строка поиска") @RequestParam @NotBlank @Size(max = 100) String q,
+            @Parameter(description = "Максимум результатов") @RequestParam(defaultValue = "10") @Min(1) @Max(100)
+            int limit) {
+        return ResponseEntity.ok(coffeeSearchService.search(q, limit));
     }
 
     /** Get coffee by id. */
@@ -74,17 +139,54 @@ public class CoffeeController {
         return coffeeService.deleteCoffee(id) ? ResponseEntity.noContent().build() : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
 
+    /** Delete coffees. */
+    @Operation(summary = "Удалить несколько кофе",
+            description = "Возвращает ID удалённых кофе; несуществующие ID пропускаются")
+    @DeleteMapping
+    public ResponseEntity<List<Long>> deleteCoffees(
+            @Parameter(description = "ID кофе") @RequestParam @NotEmpty @Size(max = 1000) List<@Min(1) Long> ids) {
+        List<Long> deleted = coffeeService.deleteCoffees(ids);
+        return deleted.isEmpty() ? ResponseEntity.status(HttpStatus.NOT_FOUND).build() : ResponseEntity.ok(deleted);
+    }
+
     /**Bulk operation.*/
-    @Operation(summary = "Создать несколько новых кофе")
+    @Operation(summary = "Создать несколько новых кофе",
+            description = "Дубликаты и некорректные позиции пропускаются, остальные создаются одной транзакцией; "
+                    + "результат возвращается по каждой позиции")
     @PostMapping("/bulk")
-    public ResponseEntity<List<CoffeeDto>> createCoffeesBulk(@Valid @RequestBody List<CoffeeDto> coffeeDtos) {
-        // Используем Stream API и лямбда-выражения для обработки списка
-        @SuppressWarnings("all")
-        List<CoffeeDto> createdCoffees = coffeeDtos.stream()
-                .map(coffeeDto -> coffeeService.createCoffee(coffeeDto))  // Создаем кофе для каждого объекта
-                .toList();  // Собираем результат в новый список
-
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdCoffees);
+    public ResponseEntity<List<CoffeeImportResultDto>> createCoffeesBulk(
+            @RequestBody @NotNull @Size(max = 10000) List<CoffeeDto> coffeeDtos) {
+        List<CoffeeImportResultDto> results = coffeeImportService.importCoffees(coffeeDtos);
+        boolean created = results.stream().anyMatch(r -> r.getStatus() == CoffeeImportResultDto.Status.CREATED);
+        return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK).body(results);
+    }
+
+    /** Streaming bulk import. */
+    @Operation(summary = "Потоковый импорт меню",
+            description = "Тело — NDJSON, по одному кофе в строке; позиции коммитятся пачками, "
+                    + "результат по каждой позиции возвращается NDJSON по мере обработки")
+    @PostMapping(value = "/bulk/stream", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    public void createCoffeesStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType("application/x-ndjson");
+        coffeeImportService.importCoffees(request.getInputStream(), response.getWriter());
+    }
+
+    /** Recommendations. */
+    @Operation(summary = "С этим кофе также заказывают",
+            description = "Кофе, которые чаще всего встречаются в заказах вместе с указанным; "
+                    + "с userId учитывается избранное пользователя")
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<CoffeeRecommendationDto>> getRecommendations(
+            @Parameter(description = "ID кофе") @PathVariable @Min(1) Long id,
+            @Parameter(description = "Сколько рекомендаций вернуть") @RequestParam(defaultValue = "5") @Min(1) @Max(50)
+            int limit,
+            @Parameter(description = "ID пользователя для персональной выдачи") @RequestParam(required = false)
+            @Min(1) Long userId) {
+        if (coffeeService.getCoffeeById(id).isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(recommendationService.recommend(id, userId, limit));
     }
 
     @GetMapping("/{id}/orders")
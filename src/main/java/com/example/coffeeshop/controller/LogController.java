@@ -5,16 +5,21 @@ import com.example.coffeeshop.service.LogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -37,36 +42,33 @@ public class LogController {
 
     /** Endpoint для получения лог-файла по дате. */
     @Operation(summary = "Получить лог-файл по дате",
-            description = "Возвращает лог-файл для указанной даты. Если файл не найден, возвращается ошибка 404.")
+            description = "Возвращает лог-файл для указанной даты. Если файл не найден, возвращается ошибка 404. "
+                    + "Поддерживаются Range/If-Range и условные запросы по ETag и Last-Modified.")
     @GetMapping("/{date}")
-    public ResponseEntity<byte[]> getLogFile(
-            @Parameter(description = "Дата в формате YYYY-MM-DD") @PathVariable String date) {
+    public void getLogFile(
+            @Parameter(description = "Дата в формате YYYY-MM-DD") @PathVariable String date,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        LogService.LogRange range;
         try {
-            // Получаем временный лог-файл по дате
-            File logFile = logService.getLogFile(date);
-            Path logFilePath = logFile.toPath();
-
-            // Читаем файл в байты
-            byte[] logFileBytes = Files.readAllBytes(logFilePath);
-
-            // Формируем ответ с файлом
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + logFile.getName());
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .headers(headers)
-                    .body(logFileBytes);
+            range = logService.findLogRange(date);
         } catch (IOException e) {
             // Возвращаем ошибку, если файл не найден или произошла ошибка
             String errorMessage = "{\"error\":\"Log file not found for the specified date: " + date + "\"}";
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(errorMessage.getBytes());
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(errorMessage.getBytes(StandardCharsets.UTF_8));
+            return;
         }
+
+        // Диапазон дня пишется в ответ прямо из лог-файла, без временных файлов и массивов
+        FileRangeResponder.send(request, response, range.file(), range.start(), range.length(),
+                logService.lastModified(range), range.etag(), "logs-" + range.date() + ".log");
     }
 
     /**Create.*/
+    @Operation(summary = "Запустить выгрузку лога за дату",
+            description = "Повторный запрос за дату, которая ещё выгружается, возвращает ID той же задачи. "
+                    + "При переполненной очереди возвращается 429")
     @PostMapping("/async/{date}")
     public ResponseEntity<Map<String, String>> createLogAsync(@PathVariable String date) {
         String id = logService.createAsyncLog(date);
@@ -74,37 +76,58 @@ public class LogController {
     }
 
     /**Get.*/
+    @Operation(summary = "Статус выгрузки лога", description = "Статус, прогресс в процентах и текст ошибки")
     @GetMapping("/status/{id}")
-    public ResponseEntity<Map<String, String>> getStatus(@PathVariable String id) {
+    public ResponseEntity<Map<String, Object>> getStatus(@PathVariable String id) {
         LogRequestInfo info = logService.getStatus(id);
         if (info == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("status", "NOT_FOUND"));
         }
-        return ResponseEntity.ok(Map.of("status", info.getStatus().name()));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", info.getStatus().name());
+        body.put("progress", info.getProgress());
+        if (info.getErrorMessage() != null) {
+            body.put("error", info.getErrorMessage());
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    /**Cancel.*/
+    @Operation(summary = "Отменить выгрузку лога",
+            description = "Останавливает выгрузку; у завершённой задачи удаляет готовый файл")
+    @DeleteMapping("/async/{id}")
+    public ResponseEntity<Void> cancelLogAsync(@PathVariable String id) {
+        return logService.cancelAsyncLog(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 
     /**Download.*/
+    @Operation(summary = "Скачать готовый лог-файл",
+            description = "Поддерживаются Range/If-Range для докачки и условные запросы по ETag и Last-Modified")
     @GetMapping("/file/{id}")
-    public ResponseEntity<?> downloadLogFile(@PathVariable String id) {
+    public void downloadLogFile(@PathVariable String id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
         File file = logService.getReadyFile(id);
-        if (file == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Map.of("error", "File not found or not ready"));
-        }
-
+        BasicFileAttributes attributes;
         try {
-            byte[] bytes = Files.readAllBytes(file.toPath());
-            HttpHeaders headers = new HttpHeaders();
-            headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + file.getName());
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .headers(headers)
-                    .body(bytes);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Failed to read file"));
+            attributes = file == null ? null : Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            attributes = null;
+        }
+        if (attributes == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write("{\"error\":\"File not found or not ready\"}"
+                    .getBytes(StandardCharsets.UTF_8));
+            return;
         }
+
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        // Файлы выгрузок не переписываются, а mtime кэш обновляет при попаданиях — ETag по имени
+        String etag = "\"" + Long.toHexString(attributes.size()) + "-" + file.getName() + "\"";
+        FileRangeResponder.send(request, response, file.toPath(), 0, attributes.size(), lastModified, etag,
+                file.getName());
     }
 }
\ No newline at end of file
@@ -1,18 +1,31 @@
 package com.example.coffeeshop.controller;
 
 import com.example.coffeeshop.dto.CreateOrderDto;
+import com.example.coffeeshop.dto.CursorPageDto;
 import com.example.coffeeshop.dto.DisplayOrderDto;
+import com.example.coffeeshop.dto.OrderSearchCriteria;
+import com.example.coffeeshop.dto.OrderTicketDto;
 import com.example.coffeeshop.dto.OrderWithDetailsDto;
+import com.example.coffeeshop.service.OrderExportService;
+import com.example.coffeeshop.service.OrderIngestionService;
 import com.example.coffeeshop.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -26,18 +39,56 @@ import org.springframework.web.bind.annotation.*;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderIngestionService orderIngestionService;
 
     /** Constructor. */
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderExportService orderExportService,
+                           OrderIngestionService orderIngestionService) {
         this.orderService = orderService;
+        this.orderExportService = orderExportService;
+        this.orderIngestionService = orderIngestionService;
     }
 
-    /** Get all coffees. */
-    @Operation(summary = "Получить список всех заказов")
+    /** Get orders page. */
+    @Operation(summary = "Получить страницу заказов",
+            description = "Keyset-пагинация: курсор следующей страницы возвращается в заголовке X-Next-Cursor")
     @GetMapping
-    public List<DisplayOrderDto> getAllOrders() {
-        return orderService.getAllOrders();
+    public ResponseEntity<List<DisplayOrderDto>> getAllOrders(
+            @Parameter(description = "ID последнего заказа предыдущей страницы") @RequestParam(required = false)
+            @Min(0) Long after,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "100") @Min(1) @Max(1000)
+            int limit) {
+        CursorPageDto<DisplayOrderDto> page = orderService.getOrdersPage(after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPageDto.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
+    }
+
+    /** Search orders. */
+    @Operation(summary = "Поиск заказов по нескольким критериям",
+            description = "Все заданные фильтры объединяются через AND; курсор следующей страницы в X-Next-Cursor")
+    @GetMapping("/search")
+    public ResponseEntity<List<DisplayOrderDto>> searchOrders(
+            @Parameter(description = "Тип кофе") @RequestParam(required = false) String coffeeType,
+            @Parameter(description = "Минимальная цена кофе") @RequestParam(required = false) @Min(0) Double minPrice,
+            @Parameter(description = "Максимальная цена кофе") @RequestParam(required = false) @Min(0) Double maxPrice,
+            @Parameter(description = "Начало имени пользователя") @RequestParam(required = false) String userNamePrefix,
+            @Parameter(description = "Слово в комментарии") @RequestParam(required = false) String notes,
+            @Parameter(description = "ID последнего заказа предыдущей страницы") @RequestParam(required = false)
+            @Min(0) Long after,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "100") @Min(1) @Max(1000)
+            int limit) {
+        OrderSearchCriteria criteria = new OrderSearchCriteria(coffeeType, minPrice, maxPrice, userNamePrefix, notes);
+        CursorPageDto<DisplayOrderDto> page = orderService.searchOrders(criteria, after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPageDto.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
     }
 
     /** Create order. */
@@ -55,6 +106,47 @@ public class OrderController {
         return ResponseEntity.badRequest().body(null);
     }
 
+    /** Bulk create orders. */
+    @Operation(summary = "Создать несколько заказов", description = "Создаёт пачку заказов одной транзакцией")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Заказы успешно созданы"),
+        @ApiResponse(responseCode = "400", description = "Ошибка в переданных данных")
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<List<DisplayOrderDto>> createOrdersBulk(
+            @Valid @RequestBody @NotEmpty List<CreateOrderDto> createOrderDtos) {
+        List<DisplayOrderDto> createdOrders = orderService.createOrdersBulk(createOrderDtos);
+        return ResponseEntity.status(HttpStatus.CREATED).body(createdOrders);
+    }
+
+    /** Submit order asynchronously. */
+    @Operation(summary = "Принять заказ асинхронно",
+            description = "Ставит заказ в очередь группового коммита и возвращает квитанцию")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Заказ принят в очередь"),
+        @ApiResponse(responseCode = "400", description = "Ошибка в переданных данных"),
+        @ApiResponse(responseCode = "429", description = "Очередь переполнена")
+    })
+    @PostMapping("/async")
+    public ResponseEntity<OrderTicketDto> submitOrder(@Valid @RequestBody CreateOrderDto createOrderDto) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(orderIngestionService.submit(createOrderDto));
+    }
+
+    /** Get async order ticket. */
+    @Operation(summary = "Статус асинхронного заказа", description = "Возвращает статус квитанции и ID созданного заказа")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Квитанция найдена"),
+        @ApiResponse(responseCode = "404", description = "Квитанция не найдена или устарела")
+    })
+    @GetMapping("/async/{ticketId}")
+    public ResponseEntity<OrderTicketDto> getOrderTicket(@PathVariable String ticketId) {
+        OrderTicketDto ticket = orderIngestionService.getTicket(ticketId);
+        if (ticket != null) {
+            return ResponseEntity.ok(ticket);
+        }
+        return ResponseEntity.notFound().build();
+    }
+
     /** Delete order. */
     @Operation(summary = "Удалить заказ", description = "Удаляет заказ по его ID")
     @ApiResponses(value = {
@@ -69,6 +161,20 @@ public class OrderController {
         return ResponseEntity.notFound().build();
     }
 
+    /** Export all orders. */
+    @Operation(summary = "Выгрузить все заказы", description = "Потоковая выгрузка заказов в формате ndjson или csv")
+    @GetMapping("/export")
+    public void exportOrders(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response)
+            throws IOException {
+        OrderExportService.Format exportFormat = OrderExportService.Format.of(format);
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=orders." + (csv ? "csv" : "ndjson"));
+        orderExportService.exportOrders(exportFormat, response.getWriter());
+    }
+
     /** Get order by id. */
     @Operation(summary = "Получить заказ по ID", description = "Возвращает данные заказа по его ID")
     @ApiResponses(value = {
@@ -112,4 +218,5 @@ public class OrderController {
     public ResponseEntity<OrderWithDetailsDto> getOrderWithDetails(@PathVariable Long id) {
         return ResponseEntity.ok(orderService.getOrderWithDetails(id));
     }
+
 }
@@ -0,0 +1,57 @@
+package com.example.coffeeshop.controller;
+
+import com.example.coffeeshop.cache.BoundedCache;
+import com.example.coffeeshop.cache.CacheStats;
+import com.example.coffeeshop.dto.DisplayOrderDto;
+import com.example.coffeeshop.dto.LogExtractCacheStatsDto;
+import com.example.coffeeshop.dto.PhoneIndexStatsDto;
+import com.example.coffeeshop.service.LogExtractCache;
+import com.example.coffeeshop.service.PhoneIndexService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Stats controller. */
+@Tag(name = "Статистика", description = "Метрики внутренних кэшей и индексов")
+@RestController
+@RequestMapping("/stats")
+public class StatsController {
+
+    private final BoundedCache<String, List<DisplayOrderDto>> orderFilterCache;
+    private final PhoneIndexService phoneIndexService;
+    private final LogExtractCache logExtractCache;
+
+    /** Constructor. */
+    @Autowired
+    public StatsController(BoundedCache<String, List<DisplayOrderDto>> orderFilterCache,
+                           PhoneIndexService phoneIndexService, LogExtractCache logExtractCache) {
+        this.orderFilterCache = orderFilterCache;
+        this.phoneIndexService = phoneIndexService;
+        this.logExtractCache = logExtractCache;
+    }
+
+    /** Order filter cache stats. */
+    @Operation(summary = "Статистика кэша фильтра заказов")
+    @GetMapping("/cache")
+    public CacheStats getOrderFilterCacheStats() {
+        return orderFilterCache.stats();
+    }
+
+    /** Phone index stats. */
+    @Operation(summary = "Статистика индекса телефонов")
+    @GetMapping("/phone-index")
+    public PhoneIndexStatsDto getPhoneIndexStats() {
+        return phoneIndexService.stats();
+    }
+
+    /** Log extract cache stats. */
+    @Operation(summary = "Статистика дискового кэша выгрузок логов")
+    @GetMapping("/log-extracts")
+    public LogExtractCacheStatsDto getLogExtractCacheStats() {
+        return logExtractCache.stats();
+    }
+}
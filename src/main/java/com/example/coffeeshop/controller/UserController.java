@@ -1,20 +1,34 @@
 package com.example.coffeeshop.controller;
 
+import com.example.coffeeshop.dto.CursorPageDto;
+import com.example.coffeeshop.dto.FavoritesUpdateDto;
+import com.example.coffeeshop.dto.UserDeletionReportDto;
 import com.example.coffeeshop.dto.UserDto;
+import com.example.coffeeshop.dto.UserSummaryDto;
 import com.example.coffeeshop.dto.UserUpdateDto;
 import com.example.coffeeshop.dto.UserWithRelationsDto;
+import com.example.coffeeshop.service.UserImportService;
 import com.example.coffeeshop.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
-import java.security.NoSuchAlgorithmException;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -28,19 +42,59 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
     /** Constructor. */
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
-    /** Get all users. */
-    @Operation(summary = "Получить всех пользователей", description = "Возвращает список всех пользователей в системе")
+    /** Get users page. */
+    @Operation(summary = "Получить страницу пользователей",
+            description = "Краткие данные с количеством заказов и избранного; "
+                    + "курсор следующей страницы возвращается в заголовке X-Next-Cursor")
     @ApiResponse(responseCode = "200", description = "Список пользователей успешно получен")
-    @GetMapping
-    public List<UserDto> getAllUsers() {
-        return userService.getAllUsers();
+    @GetMapping(params = "!expand")
+    public ResponseEntity<List<UserSummaryDto>> getAllUsers(
+            @Parameter(description = "ID последнего пользователя предыдущей страницы") @RequestParam(required = false)
+            @Min(0) Long after,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "100") @Min(1) @Max(1000)
+            int limit) {
+        CursorPageDto<UserSummaryDto> page = userService.getUserSummariesPage(after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPageDto.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
+    }
+
+    /** Get users page with relations. */
+    @Operation(summary = "Получить страницу пользователей с заказами и избранным",
+            description = "expand перечисляет вложенные данные через запятую: orders, favorites")
+    @GetMapping(params = "expand")
+    public ResponseEntity<List<UserDto>> getAllUsersExpanded(
+            @Parameter(description = "Вложенные данные: orders, favorites") @RequestParam List<String> expand,
+            @Parameter(description = "ID последнего пользователя предыдущей страницы") @RequestParam(required = false)
+            @Min(0) Long after,
+            @Parameter(description = "Размер страницы") @RequestParam(defaultValue = "100") @Min(1) @Max(1000)
+            int limit) {
+        boolean withOrders = false;
+        boolean withFavorites = false;
+        for (String relation : expand) {
+            switch (relation.trim()) {
+                case "orders" -> withOrders = true;
+                case "favorites" -> withFavorites = true;
+                default -> throw new IllegalArgumentException("Неизвестное значение expand: " + relation);
+            }
+        }
+        CursorPageDto<UserDto> page = userService.getUsersPage(after, limit, withOrders, withFavorites);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPageDto.NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getItems());
     }
 
     /** Get by id. */
@@ -59,11 +113,25 @@ public class UserController {
     @Operation(summary = "Создать пользователя", description = "Создаёт нового пользователя на основе переданных данных")
     @ApiResponse(responseCode = "201", description = "Пользователь успешно создан")
     @PostMapping
-    public ResponseEntity<UserDto> createUser(@Valid @RequestBody UserDto userDto) throws NoSuchAlgorithmException {
+    public ResponseEntity<UserDto> createUser(@Valid @RequestBody UserDto userDto) {
         UserDto createdUser = userService.createUser(userDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
     }
 
+    /** Streaming import. */
+    @Operation(summary = "Потоковый импорт пользователей",
+            description = "Тело — CSV с заголовком name,phoneNumber,password или NDJSON; пароли хешируются "
+                    + "параллельно, пользователи коммитятся пачками, результат по каждой строке возвращается NDJSON")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? UserImportService.Format.CSV : UserImportService.Format.NDJSON;
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType("application/x-ndjson");
+        userImportService.importUsers(request.getInputStream(), format, response.getWriter());
+    }
+
     /** Update user. */
     @Operation(summary = "Обновить пользователя", description = "Обновляет данные пользователя по указанному ID")
     @ApiResponses(value = {
@@ -86,6 +154,31 @@ public class UserController {
         return userService.deleteUser(id) ? ResponseEntity.noContent().build() : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
     }
 
+    /** Delete users. */
+    @Operation(summary = "Удалить несколько пользователей",
+            description = "Удаляет пользователей с заказами и избранным без загрузки сущностей; "
+                    + "несуществующие ID пропускаются, в ответе — итог и время этапов")
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<UserDeletionReportDto> deleteUsers(
+            @Parameter(description = "ID пользователей") @RequestParam @NotEmpty @Size(max = 10000)
+            List<@Min(1) Long> ids) {
+        return reportDeletion(userService.deleteUsers(ids));
+    }
+
+    /** Delete users by phone prefix. */
+    @Operation(summary = "Удалить пользователей по префиксу номера телефона",
+            description = "Удаляет всех пользователей, чей номер начинается с префикса, вместе с заказами и избранным")
+    @DeleteMapping(params = "phonePrefix")
+    public ResponseEntity<UserDeletionReportDto> deleteUsersByPhonePrefix(
+            @Parameter(description = "Префикс номера телефона") @RequestParam @NotBlank String phonePrefix) {
+        return reportDeletion(userService.deleteUsersByPhonePrefix(phonePrefix));
+    }
+
+    private ResponseEntity<UserDeletionReportDto> reportDeletion(UserDeletionReportDto report) {
+        return report.getUserIds().isEmpty() ? ResponseEntity.status(HttpStatus.NOT_FOUND).body(report)
+                : ResponseEntity.ok(report);
+    }
+
     /** Get favorites. */
     @Operation(summary = "Получить избранное пользователя", description = "Возвращает список избранных товаров пользователя по ID")
     @ApiResponse(responseCode = "200", description = "Список избранных товаров успешно получен")
@@ -94,6 +187,17 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllFavoritesCoffees(id));
     }
 
+    /** Update favorites. */
+    @Operation(summary = "Изменить избранное пользователя",
+            description = "coffeeIds заменяет избранное целиком, add/remove применяются к текущему набору; "
+                    + "возвращает итоговый список ID")
+    @ApiResponse(responseCode = "200", description = "Избранное обновлено")
+    @PutMapping("/{id}/favorites")
+    public ResponseEntity<List<Long>> updateFavorites(@PathVariable @Min(1) Long id,
+                                                      @Valid @RequestBody FavoritesUpdateDto update) {
+        return ResponseEntity.ok(userService.updateFavorites(id, update));
+    }
+
     /** Add to fav. */
     @Operation(summary = "Добавить кофе в избранное", description = "Добавляет кофе в избранное пользователя по его ID")
     @ApiResponse(responseCode = "200", description = "Кофе успешно добавлено в избранное")
@@ -112,8 +216,16 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    /** Get user with favorites and a page of orders. */
+    @Operation(summary = "Получить пользователя с избранным и заказами",
+            description = "Заказы отдаются страницами; курсор следующей страницы — nextOrdersCursor")
     @GetMapping("/{id}/relations")
-    public ResponseEntity<UserWithRelationsDto> getUserRelations(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserWithRelations(id));
+    public ResponseEntity<UserWithRelationsDto> getUserRelations(
+            @PathVariable Long id,
+            @Parameter(description = "ID последнего заказа предыдущей страницы") @RequestParam(required = false)
+            @Min(0) Long ordersAfter,
+            @Parameter(description = "Размер страницы заказов") @RequestParam(defaultValue = "100") @Min(1)
+            @Max(1000) int ordersLimit) {
+        return ResponseEntity.ok(userService.getUserWithRelations(id, ordersAfter, ordersLimit));
     }
 }
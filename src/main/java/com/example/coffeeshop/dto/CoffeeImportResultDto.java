@@ -0,0 +1,25 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Результат импорта одной позиции меню. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoffeeImportResultDto {
+
+    /** Status. */
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    private int index;
+    private String name;
+    private Status status;
+    private Long id;
+    private String error;
+}
@@ -0,0 +1,14 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Рекомендованный кофе и его вес (сколько раз его заказывали вместе с исходным). */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoffeeRecommendationDto {
+    private CoffeeDto coffee;
+    private long score;
+}
@@ -0,0 +1,16 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Продажи одного кофе. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoffeeSalesDto {
+    private Long coffeeId;
+    private String name;
+    private long orderCount;
+    private double revenue;
+}
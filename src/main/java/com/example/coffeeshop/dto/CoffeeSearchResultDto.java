@@ -0,0 +1,18 @@
+package com.example.coffeeshop.dto;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Результат поиска по меню: найденные кофе по убыванию релевантности и число совпадений по типам. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CoffeeSearchResultDto {
+    private String query;
+    private int total;
+    private List<CoffeeDto> items;
+    private Map<String, Integer> typeFacets;
+}
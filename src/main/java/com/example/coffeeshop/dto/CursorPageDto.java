@@ -0,0 +1,18 @@
+package com.example.coffeeshop.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Страница keyset-пагинации: элементы и курсор для следующего запроса. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDto<T> {
+    /** Заголовок, в котором контроллеры отдают курсор следующей страницы. */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private List<T> items;
+    private Long nextCursor;
+}
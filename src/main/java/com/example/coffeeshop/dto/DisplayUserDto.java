@@ -1,9 +1,13 @@
 package com.example.coffeeshop.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /** User Dto. */
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class DisplayUserDto {
     private Long id;
     private String phoneNumber;
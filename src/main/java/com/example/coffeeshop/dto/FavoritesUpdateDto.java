@@ -0,0 +1,25 @@
+package com.example.coffeeshop.dto;
+
+import jakarta.validation.constraints.Size;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Изменение избранного: либо полный набор coffeeIds (заменяет текущий),
+ * либо разница add/remove относительно текущего.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FavoritesUpdateDto {
+    @Size(max = 1000)
+    private Set<Long> coffeeIds;
+
+    @Size(max = 1000)
+    private Set<Long> add;
+
+    @Size(max = 1000)
+    private Set<Long> remove;
+}
@@ -0,0 +1,20 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Состояние дискового кэша выгрузок логов. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LogExtractCacheStatsDto {
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+    private int entryCount;
+    private int pinnedCount;
+    private long diskBytes;
+    private long maxBytes;
+}
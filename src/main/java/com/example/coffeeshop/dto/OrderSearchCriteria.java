@@ -0,0 +1,17 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Критерии поиска заказов; пустые поля не участвуют в фильтре. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderSearchCriteria {
+    private String coffeeType;
+    private Double minPrice;
+    private Double maxPrice;
+    private String userNamePrefix;
+    private String notesKeyword;
+}
@@ -0,0 +1,24 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Квитанция асинхронного приёма заказа. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderTicketDto {
+
+    /** Status. */
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+
+    private String ticketId;
+    private Status status;
+    private Long orderId;
+    private String error;
+}
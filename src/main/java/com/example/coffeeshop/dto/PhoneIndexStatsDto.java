@@ -0,0 +1,19 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Состояние индекса телефон → пользователь. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PhoneIndexStatsDto {
+    private int size;
+    private int ambiguousCount;
+    private int unindexedCount;
+    private int capacity;
+    private long memoryBytes;
+    private long hitCount;
+    private long fallbackCount;
+}
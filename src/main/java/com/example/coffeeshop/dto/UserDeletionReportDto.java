@@ -0,0 +1,20 @@
+package com.example.coffeeshop.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Итог массового удаления пользователей: что удалено и сколько заняли этапы. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserDeletionReportDto {
+    private List<Long> userIds;
+    private int orders;
+    private int orderCoffeeLinks;
+    private int favorites;
+    private long lookupMillis;
+    private long deleteMillis;
+    private long totalMillis;
+}
@@ -0,0 +1,26 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Результат импорта одного пользователя. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportResultDto {
+
+    /** Status. */
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    private int index;
+    private String phoneNumber;
+    private Status status;
+    private Long id;
+    private String error;
+}
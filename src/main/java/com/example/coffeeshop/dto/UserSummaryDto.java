@@ -0,0 +1,17 @@
+package com.example.coffeeshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Краткое представление пользователя для списков. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSummaryDto {
+    private Long id;
+    private String name;
+    private String phoneNumber;
+    private long orderCount;
+    private long favoriteCount;
+}
@@ -15,4 +15,5 @@ public class UserWithRelationsDto {
     private String phoneNumber;
     private List<CoffeeInfoDto> favoriteCoffees;
     private List<OrderInfoDto> orders;
+    private Long nextOrdersCursor;
 }
\ No newline at end of file
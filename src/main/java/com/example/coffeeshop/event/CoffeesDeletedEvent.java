@@ -0,0 +1,7 @@
+package com.example.coffeeshop.event;
+
+import java.util.List;
+
+/** Кофе удалены вместе со всеми своими позициями в заказах и избранном. */
+public record CoffeesDeletedEvent(List<Long> coffeeIds) {
+}
@@ -0,0 +1,8 @@
+package com.example.coffeeshop.event;
+
+import com.example.coffeeshop.dto.CoffeeDto;
+import java.util.List;
+
+/** Кофе созданы или изменены. */
+public record CoffeesSavedEvent(List<CoffeeDto> coffees) {
+}
@@ -0,0 +1,7 @@
+package com.example.coffeeshop.event;
+
+import java.util.List;
+
+/** Заказ создан; coffeeIds — позиции заказа (с повторами). */
+public record OrderCreatedEvent(Long orderId, Long userId, List<Long> coffeeIds) {
+}
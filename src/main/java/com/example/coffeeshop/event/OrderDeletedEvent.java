@@ -0,0 +1,7 @@
+package com.example.coffeeshop.event;
+
+import java.util.List;
+
+/** Заказ удалён; coffeeIds — позиции, которые в нём оставались. */
+public record OrderDeletedEvent(Long orderId, Long userId, List<Long> coffeeIds) {
+}
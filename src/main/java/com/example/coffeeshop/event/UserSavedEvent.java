@@ -0,0 +1,5 @@
+package com.example.coffeeshop.event;
+
+/** Пользователь создан или изменён; previousPhoneNumber равен null для нового пользователя. */
+public record UserSavedEvent(Long userId, String previousPhoneNumber, String phoneNumber) {
+}
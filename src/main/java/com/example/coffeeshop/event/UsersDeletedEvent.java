@@ -0,0 +1,7 @@
+package com.example.coffeeshop.event;
+
+import java.util.List;
+
+/** Пользователи удалены вместе с заказами и избранным. */
+public record UsersDeletedEvent(List<Long> userIds, List<String> phoneNumbers) {
+}
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -60,6 +61,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
+    /** Handler for full ingestion queue. */
+    @ExceptionHandler(IngestionQueueFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<String> handleIngestionQueueFullException(IngestionQueueFullException ex) {
+        logger.warn("Ingestion queue full: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body(ex.getMessage());
+    }
+
+    /** Handler for full task queue. */
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<String> handleTaskRejectedException(TaskRejectedException ex) {
+        logger.warn("Task rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "5").body(ex.getMessage());
+    }
+
     /** Handler for Password. */
     @ExceptionHandler(PasswordHashingException.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,9 @@
+package com.example.coffeeshop.exception;
+
+/**Очередь асинхронного приёма заказов переполнена.*/
+public class IngestionQueueFullException extends RuntimeException {
+    /**Yes.*/
+    public IngestionQueueFullException(String message) {
+        super(message);
+    }
+}
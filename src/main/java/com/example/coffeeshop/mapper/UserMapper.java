@@ -21,6 +21,11 @@ public class UserMapper {
 
     /** To Dto. */
     public UserDto toDto(User user) {
+        return toDto(user, true, true);
+    }
+
+    /** To Dto; relations that are not requested stay null and are not loaded. */
+    public UserDto toDto(User user, boolean withOrders, boolean withFavorites) {
         UserDto dto = new UserDto();
         dto.setId(user.getId());
         dto.setPhoneNumber(user.getPhoneNumber());
@@ -28,14 +33,18 @@ public class UserMapper {
         dto.setPasswordHash(user.getPassword());
 
         // Список ID заказов
-        List<Coffee> coffees = (user.getOrders() != null) ? user.getOrders().stream()
-                .flatMap(order -> order.getCoffees().stream()).toList() : Collections.emptyList();
-        dto.setOrders(coffeeMapper.toDto(coffees));
+        if (withOrders) {
+            List<Coffee> coffees = (user.getOrders() != null) ? user.getOrders().stream()
+                    .flatMap(order -> order.getCoffees().stream()).toList() : Collections.emptyList();
+            dto.setOrders(coffeeMapper.toDto(coffees));
+        }
 
         // Список ID любимых кофе
-        List<Coffee> favoritesCoffees = (user.getFavoriteCoffees() != null) ? user.getFavoriteCoffees()
-                : Collections.emptyList();
-        dto.setFavorites(coffeeMapper.toDto(favoritesCoffees));
+        if (withFavorites) {
+            List<Coffee> favoritesCoffees = (user.getFavoriteCoffees() != null)
+                    ? List.copyOf(user.getFavoriteCoffees()) : Collections.emptyList();
+            dto.setFavorites(coffeeMapper.toDto(favoritesCoffees));
+        }
         return dto;
     }
 
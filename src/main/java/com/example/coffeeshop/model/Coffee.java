@@ -5,7 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.util.List;
 import lombok.Getter;
@@ -13,12 +15,15 @@ import lombok.Setter;
 
 /** Coffee model. */
 @Entity
-@Table(name = "coffees")
+@Table(name = "coffees", indexes = {
+    @Index(name = "idx_coffees_type_price", columnList = "type, price")
+})
 @Setter
 @Getter
 public class Coffee {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "coffees_seq")
+    @SequenceGenerator(name = "coffees_seq", sequenceName = "coffees_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
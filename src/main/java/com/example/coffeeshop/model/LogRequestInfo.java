@@ -1,6 +1,7 @@
 package com.example.coffeeshop.model;
 
 import java.io.File;
+import java.time.Instant;
 
 /**Info.*/
 public class LogRequestInfo {
@@ -8,8 +9,10 @@ public class LogRequestInfo {
     /**Status.*/
     public enum Status {
         PENDING,
+        RUNNING,
         DONE,
-        ERROR
+        ERROR,
+        CANCELLED
     }
 
     private String requestId;
@@ -17,6 +20,8 @@ public class LogRequestInfo {
     private Status status;
     private File file;
     private String errorMessage;
+    private int progress;
+    private Instant finishedAt;
 
     /**Constructor empty.*/
     public LogRequestInfo() {}
@@ -37,6 +42,14 @@ public class LogRequestInfo {
         this.errorMessage = errorMessage;
     }
 
+    /**Constructor with progress (0–100) and completion time.*/
+    public LogRequestInfo(String requestId, String date, Status status, File file, String errorMessage,
+                          int progress, Instant finishedAt) {
+        this(requestId, date, status, file, errorMessage);
+        this.progress = progress;
+        this.finishedAt = finishedAt;
+    }
+
     public String getRequestId() {
         return requestId;
     }
@@ -76,4 +89,20 @@ public class LogRequestInfo {
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
     }
+
+    public int getProgress() {
+        return progress;
+    }
+
+    public void setProgress(int progress) {
+        this.progress = progress;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
 }
@@ -11,20 +11,25 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
 
 /** User model. */
 @Entity
+// Индекс по name для префиксного поиска — idx_users_name_pattern из db/users-name-pattern-index.sql
 @Table(name = "users")
 @Setter
 @Getter
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "phone_number", unique = true, nullable = false)
@@ -45,5 +50,6 @@ public class User {
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "coffee_id")
     )
-    private List<Coffee> favoriteCoffees = new ArrayList<>();
+    // Set, а не List: Hibernate создаёт первичный ключ (user_id, coffee_id) и не допускает дублей
+    private Set<Coffee> favoriteCoffees = new HashSet<>();
 }
@@ -1,8 +1,14 @@
 package com.example.coffeeshop.repository;
 
+import com.example.coffeeshop.dto.CoffeeInfoDto;
 import com.example.coffeeshop.model.Coffee;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /** Repos. */
@@ -10,4 +16,27 @@ import org.springframework.stereotype.Repository;
 public interface CoffeeRepository extends JpaRepository<Coffee, Long> {
     /** Find by name. */
     Optional<Coffee> findByName(String name);
+
+    /** Read-only projection of the coffee. */
+    @Query("SELECT new com.example.coffeeshop.dto.CoffeeInfoDto(c.id, c.name, c.type, c.price) "
+            + "FROM Coffee c WHERE c.id = :id")
+    Optional<CoffeeInfoDto> findInfoById(@Param("id") Long id);
+
+    /** Названия из переданных, которые уже есть в базе. */
+    @Query("SELECT c.name FROM Coffee c WHERE c.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    /** ID из переданных, которые есть в базе. */
+    @Query("SELECT c.id FROM Coffee c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /** Убирает кофе из избранного у всех пользователей. */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM user_favorite_coffee WHERE coffee_id IN (:ids)", nativeQuery = true)
+    int deleteFavoriteLinks(@Param("ids") Collection<Long> ids);
+
+    /** Удаляет кофе; связи должны быть уже удалены. */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM coffees WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
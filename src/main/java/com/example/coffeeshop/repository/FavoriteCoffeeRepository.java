@@ -0,0 +1,49 @@
+package com.example.coffeeshop.repository;
+
+import com.example.coffeeshop.model.User;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Избранное пользователей напрямую в user_favorite_coffee, без загрузки User и Coffee.
+ * Вставки идемпотентны за счёт первичного ключа (user_id, coffee_id) и ON CONFLICT DO NOTHING.
+ */
+public interface FavoriteCoffeeRepository extends org.springframework.data.repository.Repository<User, Long> {
+
+    /** ID избранных кофе пользователя. */
+    @Query(value = "SELECT coffee_id FROM user_favorite_coffee WHERE user_id = :userId ORDER BY coffee_id",
+            nativeQuery = true)
+    List<Long> findCoffeeIdsByUserId(@Param("userId") Long userId);
+
+    /** Добавляет существующие кофе в избранное; уже добавленные и несуществующие пропускаются. */
+    @Modifying
+    @Query(value = "INSERT INTO user_favorite_coffee (user_id, coffee_id) "
+            + "SELECT u.id, c.id FROM users u JOIN coffees c ON c.id IN (:coffeeIds) WHERE u.id = :userId "
+            + "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("coffeeIds") Collection<Long> coffeeIds);
+
+    /** Убирает кофе из избранного. */
+    @Modifying
+    @Query(value = "DELETE FROM user_favorite_coffee WHERE user_id = :userId AND coffee_id IN (:coffeeIds)",
+            nativeQuery = true)
+    int delete(@Param("userId") Long userId, @Param("coffeeIds") Collection<Long> coffeeIds);
+
+    /** Убирает из избранного всё, кроме указанных кофе. */
+    @Modifying
+    @Query(value = "DELETE FROM user_favorite_coffee WHERE user_id = :userId AND coffee_id NOT IN (:coffeeIds)",
+            nativeQuery = true)
+    int deleteAllExcept(@Param("userId") Long userId, @Param("coffeeIds") Collection<Long> coffeeIds);
+
+    /** Очищает избранное пользователя. */
+    @Modifying
+    @Query(value = "DELETE FROM user_favorite_coffee WHERE user_id = :userId", nativeQuery = true)
+    int deleteAll(@Param("userId") Long userId);
+
+    /** Очищает избранное нескольких пользователей. */
+    @Modifying
+    @Query(value = "DELETE FROM user_favorite_coffee WHERE user_id IN (:userIds)", nativeQuery = true)
+    int deleteAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
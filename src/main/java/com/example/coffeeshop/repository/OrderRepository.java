@@ -1,26 +1,123 @@
 package com.example.coffeeshop.repository;
 
+import com.example.coffeeshop.dto.CoffeeInfoDto;
+import com.example.coffeeshop.dto.OrderInfoDto;
 import com.example.coffeeshop.model.Order;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 /** Repos. */
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     /** Find by user id. */
     List<Order> findByUserId(Long userId); // Получение всех заказов пользователя
 
+    /** Заказы нескольких пользователей. */
+    List<Order> findByUserIdInOrderByIdAsc(Collection<Long> userIds);
+
+    /** Keyset page: orders after the given id. */
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
     /** JPQL. */
     @Query("SELECT o FROM Order o WHERE o.user.phoneNumber = :phoneNumber")
     List<Order> findAllByUserPhoneNumber(@Param("phoneNumber") String phoneNumber);
 
-    @EntityGraph(attributePaths = {"coffees", "user"})
-    Optional<Order> findWithDetailsById(Long id);
+    /** Stream of all orders for export; must be consumed inside a transaction and closed. */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o JOIN FETCH o.user ORDER BY o.id")
+    Stream<Order> streamAllForExport();
+
+    /** Read-only projection: order header. */
+    @Query("SELECT new com.example.coffeeshop.dto.OrderInfoDto(o.id, u.name, o.notes) "
+            + "FROM Order o JOIN o.user u WHERE o.id = :id")
+    Optional<OrderInfoDto> findInfoById(@Param("id") Long id);
+
+    /** Read-only projection: coffees of the order. */
+    @Query("SELECT new com.example.coffeeshop.dto.CoffeeInfoDto(c.id, c.name, c.type, c.price) "
+            + "FROM Order o JOIN o.coffees c WHERE o.id = :orderId")
+    List<CoffeeInfoDto> findCoffeeInfoByOrderId(@Param("orderId") Long orderId);
+
+    /** Read-only projection: orders containing the coffee. */
+    @Query("SELECT DISTINCT new com.example.coffeeshop.dto.OrderInfoDto(o.id, u.name, o.notes) "
+            + "FROM Order o JOIN o.user u JOIN o.coffees c WHERE c.id = :coffeeId ORDER BY o.id")
+    List<OrderInfoDto> findInfoByCoffeeId(@Param("coffeeId") Long coffeeId);
+
+    /** Read-only projection: keyset page of the user's orders. */
+    @Query("SELECT new com.example.coffeeshop.dto.OrderInfoDto(o.id, u.name, o.notes) "
+            + "FROM Order o JOIN o.user u WHERE u.id = :userId AND o.id > :after ORDER BY o.id")
+    List<OrderInfoDto> findInfoByUserId(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
+
+    /** Количество позиций в заказах по каждому кофе. */
+    @Query("SELECT c.id AS coffeeId, COUNT(c) AS orderCount FROM Order o JOIN o.coffees c GROUP BY c.id")
+    List<CoffeeOrderCount> countOrdersByCoffee();
+
+    /** Позиции заказов, в которых не останется ни одного кофе после удаления указанных. */
+    @Query(value = "SELECT o.id AS orderId, o.user_id AS userId, oc.coffee_id AS coffeeId "
+            + "FROM orders o JOIN order_coffee oc ON oc.order_id = o.id "
+            + "WHERE oc.coffee_id IN (:coffeeIds) "
+            + "AND NOT EXISTS (SELECT 1 FROM order_coffee rest "
+            + "WHERE rest.order_id = o.id AND rest.coffee_id NOT IN (:coffeeIds))", nativeQuery = true)
+    List<OrderCoffeeRow> findOrdersEmptiedByCoffeeRemoval(@Param("coffeeIds") Collection<Long> coffeeIds);
+
+    /** Телефоны пользователей, в заказах которых есть указанные кофе. */
+    @Query(value = "SELECT DISTINCT u.phone_number FROM users u JOIN orders o ON o.user_id = u.id "
+            + "JOIN order_coffee oc ON oc.order_id = o.id WHERE oc.coffee_id IN (:coffeeIds)", nativeQuery = true)
+    List<String> findPhoneNumbersByCoffeeIds(@Param("coffeeIds") Collection<Long> coffeeIds);
+
+    /** Убирает кофе из всех заказов. */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM order_coffee WHERE coffee_id IN (:coffeeIds)", nativeQuery = true)
+    int deleteCoffeeLinks(@Param("coffeeIds") Collection<Long> coffeeIds);
+
+    /** Удаляет заказы по ID без загрузки сущностей. */
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Позиции всех заказов пользователей; у заказа без кофе coffeeId равен null. */
+    @Query(value = "SELECT o.id AS orderId, o.user_id AS userId, oc.coffee_id AS coffeeId "
+            + "FROM orders o LEFT JOIN order_coffee oc ON oc.order_id = o.id "
+            + "WHERE o.user_id IN (:userIds)", nativeQuery = true)
+    List<OrderCoffeeRow> findCoffeeRowsByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /** Убирает позиции из всех заказов пользователей. */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM order_coffee WHERE order_id IN "
+            + "(SELECT id FROM orders WHERE user_id IN (:userIds))", nativeQuery = true)
+    int deleteCoffeeLinksByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /** Удаляет заказы пользователей; позиции должны быть уже удалены. */
+    @Modifying
+    @Query(value = "DELETE FROM orders WHERE user_id IN (:userIds)", nativeQuery = true)
+    int deleteAllByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /** Projection. */
+    interface OrderCoffeeRow {
+        Long getOrderId();
+
+        Long getUserId();
+
+        Long getCoffeeId();
+    }
+
+    /** Projection. */
+    interface CoffeeOrderCount {
+        Long getCoffeeId();
 
-    @Query("SELECT o FROM Order o JOIN o.coffees c WHERE c.id = :coffeeId")
-    List<Order> findByCoffeeId(@Param("coffeeId") Long coffeeId);
+        long getOrderCount();
+    }
 }
@@ -0,0 +1,115 @@
+package com.example.coffeeshop.repository;
+
+import com.example.coffeeshop.dto.OrderSearchCriteria;
+import com.example.coffeeshop.model.Coffee;
+import com.example.coffeeshop.model.Order;
+import com.example.coffeeshop.model.User;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.data.jpa.domain.Specification;
+
+/** Составные условия поиска заказов для {@link OrderRepository}. */
+public final class OrderSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private OrderSpecifications() {
+    }
+
+    /** Все заданные в критериях условия, объединённые через AND. */
+    public static Specification<Order> matching(OrderSearchCriteria criteria, Long after) {
+        return Specification.where(fetchUser())
+                .and(idGreaterThan(after))
+                .and(hasCoffee(criteria.getCoffeeType(), criteria.getMinPrice(), criteria.getMaxPrice()))
+                .and(userNameStartsWith(criteria.getUserNamePrefix()))
+                .and(notesContain(criteria.getNotesKeyword()));
+    }
+
+    /** Подтягивает пользователя тем же запросом. */
+    public static Specification<Order> fetchUser() {
+        return (root, query, cb) -> {
+            if (Long.class != query.getResultType() && long.class != query.getResultType()) {
+                root.fetch("user");
+            }
+            return null;
+        };
+    }
+
+    /** Keyset-курсор. */
+    public static Specification<Order> idGreaterThan(Long after) {
+        return (root, query, cb) -> after == null ? null : cb.greaterThan(root.get("id"), after);
+    }
+
+    /** В заказе есть кофе заданного типа и/или в заданном диапазоне цены. */
+    public static Specification<Order> hasCoffee(String type, Double minPrice, Double maxPrice) {
+        return (root, query, cb) -> {
+            if (isBlank(type) && minPrice == null && maxPrice == null) {
+                return null;
+            }
+            // EXISTS вместо JOIN, чтобы заказ не дублировался при нескольких подходящих кофе
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Order> correlated = subquery.correlate(root);
+            Join<Order, Coffee> coffee = correlated.join("coffees");
+            List<Predicate> predicates = new ArrayList<>();
+            if (!isBlank(type)) {
+                predicates.add(cb.equal(coffee.get("type"), type));
+            }
+            if (minPrice != null) {
+                predicates.add(cb.greaterThanOrEqualTo(coffee.get("price"), minPrice));
+            }
+            if (maxPrice != null) {
+                predicates.add(cb.lessThanOrEqualTo(coffee.get("price"), maxPrice));
+            }
+            subquery.select(coffee.get("id")).where(predicates.toArray(new Predicate[0]));
+            return cb.exists(subquery);
+        };
+    }
+
+    /**
+     * Имя пользователя начинается с префикса. Регистрозависимо: такой LIKE обслуживает индекс
+     * idx_users_name_pattern (varchar_pattern_ops) из db/users-name-pattern-index.sql.
+     */
+    public static Specification<Order> userNameStartsWith(String prefix) {
+        return (root, query, cb) -> isBlank(prefix) ? null
+                : cb.like(userJoin(root).get("name"), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    /**
+     * Комментарий содержит ключевое слово без учёта регистра. Выражение lower(notes) совпадает
+     * с триграммным индексом idx_orders_notes_trgm из db/orders-notes-trgm-index.sql.
+     */
+    public static Specification<Order> notesContain(String keyword) {
+        return (root, query, cb) -> isBlank(keyword) ? null
+                : cb.like(cb.lower(root.get("notes")),
+                        "%" + escapeLike(keyword.toLowerCase(Locale.ROOT)) + "%", LIKE_ESCAPE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Join<Order, User> userJoin(Root<Order> root) {
+        for (Fetch<Order, ?> fetch : root.getFetches()) {
+            if ("user".equals(fetch.getAttribute().getName())) {
+                return (Join<Order, User>) fetch;
+            }
+        }
+        for (Join<Order, ?> join : root.getJoins()) {
+            if ("user".equals(join.getAttribute().getName())) {
+                return (Join<Order, User>) join;
+            }
+        }
+        return root.join("user");
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
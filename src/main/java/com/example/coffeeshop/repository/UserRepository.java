@@ -1,16 +1,75 @@
 package com.example.coffeeshop.repository;
 
+import com.example.coffeeshop.dto.CoffeeInfoDto;
+import com.example.coffeeshop.dto.DisplayUserDto;
+import com.example.coffeeshop.dto.UserSummaryDto;
 import com.example.coffeeshop.model.User;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /** Repos. */
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-    // Вариант 1: Используем @EntityGraph
-    @EntityGraph(attributePaths = {"favoriteCoffees", "orders", "orders.coffees"})
-    Optional<User> findWithRelationsById(Long id);
+    /** Keyset page: users after the given id. */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /** Keyset page of user summaries with order and favorite counts in one query. */
+    @Query("SELECT new com.example.coffeeshop.dto.UserSummaryDto(u.id, u.name, u.phoneNumber, "
+            + "(SELECT COUNT(o) FROM Order o WHERE o.user = u), "
+            + "(SELECT COUNT(f) FROM User fu JOIN fu.favoriteCoffees f WHERE fu = u)) "
+            + "FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<UserSummaryDto> findSummariesAfter(@Param("after") Long after, Limit limit);
+
+    /** Keyset page of id and phone pairs. */
+    @Query("SELECT u.id AS id, u.phoneNumber AS phoneNumber FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<UserPhone> findPhonesAfter(@Param("after") Long after, Limit limit);
+
+    /** ID и телефоны существующих пользователей из переданных. */
+    @Query("SELECT u.id AS id, u.phoneNumber AS phoneNumber FROM User u WHERE u.id IN :ids ORDER BY u.id")
+    List<UserPhone> findPhonesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * ID и телефоны пользователей, чей номер подходит под LIKE-шаблон. Используется для поиска
+     * по цифрам номера: шаблон пропускает форматирование, точное сравнение — у вызывающего.
+     */
+    @Query("SELECT u.id AS id, u.phoneNumber AS phoneNumber FROM User u WHERE u.phoneNumber LIKE :pattern "
+            + "ORDER BY u.id")
+    List<UserPhone> findPhonesLike(@Param("pattern") String pattern);
+
+    /** ID и телефоны пользователей, чей номер начинается с префикса. */
+    List<UserPhone> findByPhoneNumberStartingWithOrderById(String prefix);
+
+    /** Удаляет пользователей; заказы и избранное должны быть уже удалены. */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM users WHERE id IN (:ids)", nativeQuery = true)
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Read-only projection of the user. */
+    @Query("SELECT new com.example.coffeeshop.dto.DisplayUserDto(u.id, u.phoneNumber, u.name) "
+            + "FROM User u WHERE u.id = :id")
+    Optional<DisplayUserDto> findDisplayById(@Param("id") Long id);
+
+    /** Read-only projection: favorite coffees of the user. */
+    @Query("SELECT new com.example.coffeeshop.dto.CoffeeInfoDto(c.id, c.name, c.type, c.price) "
+            + "FROM User u JOIN u.favoriteCoffees c WHERE u.id = :userId")
+    List<CoffeeInfoDto> findFavoriteCoffeeInfoByUserId(@Param("userId") Long userId);
+
+    /** Телефоны из переданных, которые уже есть в базе. */
+    @Query("SELECT u.phoneNumber FROM User u WHERE u.phoneNumber IN :phoneNumbers")
+    List<String> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    /** Projection. */
+    interface UserPhone {
+        Long getId();
+
+        String getPhoneNumber();
+    }
 }
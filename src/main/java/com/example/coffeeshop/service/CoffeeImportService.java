@@ -0,0 +1,193 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.CoffeeDto;
+import com.example.coffeeshop.dto.CoffeeImportResultDto;
+import com.example.coffeeshop.event.CoffeesSavedEvent;
+import com.example.coffeeshop.mapper.CoffeeMapper;
+import com.example.coffeeshop.model.Coffee;
+import com.example.coffeeshop.repository.CoffeeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Массовый импорт меню: дубликаты проверяются одним запросом к БД и внутри самого запроса,
+ * новые позиции вставляются пачками Hibernate в одной транзакции.
+ */
+@Service
+public class CoffeeImportService {
+
+    /** Сколько позиций потокового импорта коммитится одной транзакцией. */
+    private static final int STREAM_CHUNK_SIZE = 1000;
+    /** Ограничение на размер IN-списка при проверке имён. */
+    private static final int NAME_LOOKUP_CHUNK_SIZE = 1000;
+
+    private final CoffeeRepository coffeeRepository;
+    private final CoffeeMapper coffeeMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Constructor. */
+    @Autowired
+    public CoffeeImportService(CoffeeRepository coffeeRepository,
+                               CoffeeMapper coffeeMapper, Validator validator, ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.coffeeRepository = coffeeRepository;
+        this.coffeeMapper = coffeeMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Импортирует список целиком в одной транзакции. */
+    @Transactional
+    public List<CoffeeImportResultDto> importCoffees(List<CoffeeDto> coffees) {
+        return importChunk(coffees, 0, new HashSet<>());
+    }
+
+    /**
+     * Читает позиции из NDJSON-потока и коммитит их пачками, записывая результат по каждой
+     * позиции в writer сразу после коммита пачки.
+     */
+    public void importCoffees(InputStream input, Writer writer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(CoffeeDto.class);
+        Set<String> seenNames = new HashSet<>();
+        List<CoffeeDto> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        int index = 0;
+
+        try (MappingIterator<CoffeeDto> iterator = reader.readValues(input)) {
+            while (true) {
+                CoffeeDto coffee;
+                try {
+                    if (!iterator.hasNextValue()) {
+                        break;
+                    }
+                    coffee = iterator.nextValue();
+                } catch (JsonProcessingException e) {
+                    // После синтаксической ошибки позиция в потоке не определена — дальше не читаем
+                    writeChunk(chunk, index - chunk.size(), seenNames, writer);
+                    writeResult(writer, new CoffeeImportResultDto(index, null, CoffeeImportResultDto.Status.INVALID,
+                            null, "Некорректный JSON: " + e.getOriginalMessage()));
+                    writer.flush();
+                    return;
+                }
+                chunk.add(coffee);
+                index++;
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    writeChunk(chunk, index - chunk.size(), seenNames, writer);
+                }
+            }
+        }
+        writeChunk(chunk, index - chunk.size(), seenNames, writer);
+        writer.flush();
+    }
+
+    private void writeChunk(List<CoffeeDto> chunk, int firstIndex, Set<String> seenNames, Writer writer)
+            throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<CoffeeImportResultDto> results = transactionTemplate.execute(
+                status -> importChunk(chunk, firstIndex, seenNames));
+        for (CoffeeImportResultDto result : results) {
+            writeResult(writer, result);
+        }
+        writer.flush();
+        chunk.clear();
+    }
+
+    private void writeResult(Writer writer, CoffeeImportResultDto result) throws IOException {
+        writer.write(objectMapper.writeValueAsString(result));
+        writer.write('\n');
+    }
+
+    private List<CoffeeImportResultDto> importChunk(List<CoffeeDto> coffees, int firstIndex, Set<String> seenNames) {
+        CoffeeImportResultDto[] results = new CoffeeImportResultDto[coffees.size()];
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < coffees.size(); i++) {
+            CoffeeDto coffee = coffees.get(i);
+            int index = firstIndex + i;
+            String error = validate(coffee);
+            if (error != null) {
+                results[i] = new CoffeeImportResultDto(index, coffee == null ? null : coffee.getName(),
+                        CoffeeImportResultDto.Status.INVALID, null, error);
+            } else if (!seenNames.add(coffee.getName())) {
+                results[i] = new CoffeeImportResultDto(index, coffee.getName(),
+                        CoffeeImportResultDto.Status.DUPLICATE, null, "Название повторяется в запросе");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existingNames = findExistingNames(candidates.stream().map(i -> coffees.get(i).getName()).toList());
+        List<Integer> toInsert = new ArrayList<>(candidates.size());
+        List<Coffee> entities = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            CoffeeDto coffee = coffees.get(i);
+            if (existingNames.contains(coffee.getName())) {
+                results[i] = new CoffeeImportResultDto(firstIndex + i, coffee.getName(),
+                        CoffeeImportResultDto.Status.DUPLICATE, null, "Кофе с таким названием уже существует");
+            } else {
+                toInsert.add(i);
+                entities.add(coffeeMapper.toEntity(coffee));
+            }
+        }
+
+        coffeeRepository.saveAll(entities);
+        coffeeRepository.flush();
+
+        List<CoffeeDto> saved = new ArrayList<>(entities.size());
+        for (int j = 0; j < entities.size(); j++) {
+            Coffee entity = entities.get(j);
+            int i = toInsert.get(j);
+            results[i] = new CoffeeImportResultDto(firstIndex + i, entity.getName(),
+                    CoffeeImportResultDto.Status.CREATED, entity.getId(), null);
+            saved.add(coffeeMapper.toDto(entity));
+        }
+        if (!saved.isEmpty()) {
+            eventPublisher.publishEvent(new CoffeesSavedEvent(saved));
+        }
+        return List.of(results);
+    }
+
+    private Set<String> findExistingNames(List<String> names) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < names.size(); from += NAME_LOOKUP_CHUNK_SIZE) {
+            existing.addAll(coffeeRepository.findExistingNames(
+                    names.subList(from, Math.min(from + NAME_LOOKUP_CHUNK_SIZE, names.size()))));
+        }
+        return existing;
+    }
+
+    private String validate(CoffeeDto coffee) {
+        if (coffee == null) {
+            return "Пустая позиция";
+        }
+        Set<ConstraintViolation<CoffeeDto>> violations = validator.validate(coffee);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.CoffeeDto;
+import com.example.coffeeshop.dto.CoffeeSearchResultDto;
+import com.example.coffeeshop.event.CoffeesDeletedEvent;
+import com.example.coffeeshop.event.CoffeesSavedEvent;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Поиск по названию и типу кофе в памяти: префиксное дерево для автодополнения и
+ * триграммы для опечаток. Индекс строится из меню при старте и обновляется событиями.
+ */
+@Service
+public class CoffeeSearchService {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    /** Ниже этого сходства по триграммам слово не считается совпадением. */
+    private static final double MIN_SIMILARITY = 0.3;
+    /** Сколько слов максимум разворачивает один префикс. */
+    private static final int MAX_PREFIX_EXPANSION = 1000;
+    private static final double TYPE_WEIGHT = 0.5;
+
+    private final MenuCatalogService menuCatalogService;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> tokenPostings = new HashMap<>();
+    private final Map<String, Set<String>> trigramPostings = new HashMap<>();
+    private final TrieNode trie = new TrieNode();
+
+    /** Constructor. */
+    @Autowired
+    public CoffeeSearchService(MenuCatalogService menuCatalogService) {
+        this.menuCatalogService = menuCatalogService;
+    }
+
+    /** Построение индекса по текущему меню. */
+    @PostConstruct
+    public void rebuild() {
+        MenuCatalogService.Snapshot menu = menuCatalogService.current();
+        List<CoffeeDto> coffees = menu.page(0L, menu.size());
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            tokenPostings.clear();
+            trigramPostings.clear();
+            trie.children.clear();
+            trie.terminal = false;
+            coffees.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Coffees created or updated. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeesSaved(CoffeesSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (CoffeeDto coffee : event.coffees()) {
+                unindex(coffee.getId());
+                index(coffee);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Coffees deleted. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeesDeleted(CoffeesDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.coffeeIds().forEach(this::unindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет кофе по словам запроса. Каждое слово совпадает точно, по префиксу или по триграммам;
+     * совпадение в названии весит больше, чем в типе.
+     */
+    public CoffeeSearchResultDto search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (String queryToken : queryTokens) {
+                Map<String, Double> matches = matchTokens(queryToken);
+                Map<Long, Double> best = new HashMap<>();
+                for (Map.Entry<String, Double> match : matches.entrySet()) {
+                    for (Long id : tokenPostings.getOrDefault(match.getKey(), Set.of())) {
+                        double weight = documents.get(id).nameTokens.contains(match.getKey()) ? 1.0 : TYPE_WEIGHT;
+                        best.merge(id, match.getValue() * weight, Math::max);
+                    }
+                }
+                best.forEach((id, score) -> scores.merge(id, score, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        MenuCatalogService.Snapshot menu = menuCatalogService.current();
+        List<CoffeeDto> items = new ArrayList<>(Math.min(limit, ranked.size()));
+        Map<String, Integer> facets = new TreeMap<>();
+        int total = 0;
+        for (Map.Entry<Long, Double> entry : ranked) {
+            CoffeeDto coffee = menu.find(entry.getKey()).orElse(null);
+            if (coffee == null) {
+                continue;
+            }
+            total++;
+            facets.merge(coffee.getType(), 1, Integer::sum);
+            if (items.size() < limit) {
+                items.add(coffee);
+            }
+        }
+        return new CoffeeSearchResultDto(query, total, items, facets);
+    }
+
+    /** Слова индекса, подходящие под слово запроса, с оценкой от 0 до 1. */
+    private Map<String, Double> matchTokens(String queryToken) {
+        Map<String, Double> matches = new LinkedHashMap<>();
+        if (tokenPostings.containsKey(queryToken)) {
+            matches.put(queryToken, 1.0);
+        }
+        for (String token : trie.collect(queryToken, MAX_PREFIX_EXPANSION)) {
+            // Чем короче дополнение, тем ближе к точному совпадению
+            matches.merge(token, 0.9 * queryToken.length() / token.length() + 0.05, Math::max);
+        }
+
+        Set<String> queryGrams = trigrams(queryToken);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String token : trigramPostings.getOrDefault(gram, Set.of())) {
+                shared.merge(token, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+            int tokenGrams = trigrams(entry.getKey()).size();
+            double similarity = (double) entry.getValue() / (queryGrams.size() + tokenGrams - entry.getValue());
+            if (similarity >= MIN_SIMILARITY) {
+                matches.merge(entry.getKey(), 0.8 * similarity, Math::max);
+            }
+        }
+        return matches;
+    }
+
+    private void index(CoffeeDto coffee) {
+        Document document = new Document(new HashSet<>(tokenize(coffee.getName())),
+                new HashSet<>(tokenize(coffee.getType())));
+        documents.put(coffee.getId(), document);
+        for (String token : document.allTokens()) {
+            Set<Long> ids = tokenPostings.computeIfAbsent(token, t -> new HashSet<>());
+            if (ids.isEmpty()) {
+                trie.insert(token);
+                for (String gram : trigrams(token)) {
+                    trigramPostings.computeIfAbsent(gram, g -> new HashSet<>()).add(token);
+                }
+            }
+            ids.add(coffee.getId());
+        }
+    }
+
+    private void unindex(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String token : document.allTokens()) {
+            Set<Long> ids = tokenPostings.get(token);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                // Слово больше нигде не встречается — убираем его из дерева и триграмм
+                tokenPostings.remove(token);
+                trie.remove(token);
+                for (String gram : trigrams(token)) {
+                    Set<String> tokens = trigramPostings.get(gram);
+                    tokens.remove(token);
+                    if (tokens.isEmpty()) {
+                        trigramPostings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalized)).filter(token -> !token.isEmpty()).toList();
+    }
+
+    private static Set<String> trigrams(String token) {
+        String padded = "$" + token + "$";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record Document(Set<String> nameTokens, Set<String> typeTokens) {
+        Collection<String> allTokens() {
+            Set<String> all = new HashSet<>(nameTokens);
+            all.addAll(typeTokens);
+            return all;
+        }
+    }
+
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private boolean terminal;
+
+        void insert(String token) {
+            TrieNode node = this;
+            for (int i = 0; i < token.length(); i++) {
+                node = node.children.computeIfAbsent(token.charAt(i), c -> new TrieNode());
+            }
+            node.terminal = true;
+        }
+
+        void remove(String token) {
+            remove(token, 0);
+        }
+
+        /** Возвращает true, если узел стал пустым и его можно отцепить от родителя. */
+        private boolean remove(String token, int depth) {
+            if (depth == token.length()) {
+                terminal = false;
+            } else {
+                TrieNode child = children.get(token.charAt(depth));
+                if (child != null && child.remove(token, depth + 1)) {
+                    children.remove(token.charAt(depth));
+                }
+            }
+            return !terminal && children.isEmpty();
+        }
+
+        List<String> collect(String prefix, int max) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            List<String> tokens = new ArrayList<>();
+            if (node != null) {
+                node.collect(new StringBuilder(prefix), tokens, max);
+            }
+            return tokens;
+        }
+
+        private void collect(StringBuilder path, List<String> tokens, int max) {
+            if (tokens.size() >= max) {
+                return;
+            }
+            if (terminal) {
+                tokens.add(path.toString());
+            }
+            for (Map.Entry<Character, TrieNode> child : children.entrySet()) {
+                path.append(child.getKey());
+                child.getValue().collect(path, tokens, max);
+                path.setLength(path.length() - 1);
+            }
+        }
+    }
+}
@@ -1,54 +1,73 @@
 package com.example.coffeeshop.service;
 
 import com.example.coffeeshop.dto.CoffeeDto;
+import com.example.coffeeshop.dto.CoffeeInfoDto;
 import com.example.coffeeshop.dto.CoffeeUpdateDto;
 import com.example.coffeeshop.dto.CoffeeWithOrdersDto;
-import com.example.coffeeshop.dto.OrderInfoDto;
+import com.example.coffeeshop.dto.CursorPageDto;
+import com.example.coffeeshop.event.CoffeesSavedEvent;
+import com.example.coffeeshop.event.CoffeesDeletedEvent;
+import com.example.coffeeshop.event.OrderDeletedEvent;
 import com.example.coffeeshop.mapper.CoffeeMapper;
 import com.example.coffeeshop.model.Coffee;
-import com.example.coffeeshop.model.Order;
-import com.example.coffeeshop.model.User;
 import com.example.coffeeshop.repository.CoffeeRepository;
 import com.example.coffeeshop.repository.OrderRepository;
-import com.example.coffeeshop.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /** Service. */
 @Service
 public class CoffeeService {
 
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     private final CoffeeRepository coffeeRepository;
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
     private final CoffeeMapper coffeeMapper;
     private final OrderService orderService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MenuCatalogService menuCatalogService;
 
     /** Constructor. */
     @Autowired
     public CoffeeService(CoffeeRepository coffeeRepository, CoffeeMapper coffeeMapper,
-                         OrderRepository orderRepository, UserRepository userRepository, OrderService orderService) {
+                         OrderRepository orderRepository, OrderService orderService,
+                         ApplicationEventPublisher eventPublisher, MenuCatalogService menuCatalogService) {
         this.coffeeRepository = coffeeRepository;
         this.coffeeMapper = coffeeMapper;
         this.orderRepository = orderRepository;
-        this.userRepository = userRepository;
         this.orderService = orderService;
+        this.eventPublisher = eventPublisher;
+        this.menuCatalogService = menuCatalogService;
+    }
+
+    /** Current menu snapshot. */
+    public MenuCatalogService.Snapshot getMenu() {
+        return menuCatalogService.current();
     }
 
-    /** Get all coffees. */
-    public List<CoffeeDto> getAllCoffees() {
-        return coffeeRepository.findAll().stream()
-                .map(coffeeMapper::toDto)
-                .toList();
+    /** Get coffees page. */
+    public CursorPageDto<CoffeeDto> getCoffeesPage(Long after, int limit) {
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        List<CoffeeDto> coffees = menuCatalogService.current().page(after == null ? 0L : after, limit + 1);
+        boolean hasNext = coffees.size() > limit;
+        List<CoffeeDto> page = hasNext ? coffees.subList(0, limit) : coffees;
+        Long nextCursor = hasNext ? page.get(page.size() - 1).getId() : null;
+        return new CursorPageDto<>(page, nextCursor);
     }
 
     /** Get coffee by id. */
     public Optional<CoffeeDto> getCoffeeById(Long id) {
-        return coffeeRepository.findById(id).map(coffeeMapper::toDto);
+        return menuCatalogService.current().find(id);
     }
 
     /** Create coffee. */
@@ -61,7 +80,9 @@ public class CoffeeService {
         }
 
         Coffee coffee = coffeeMapper.toEntity(coffeeDto);
-        return coffeeMapper.toDto(coffeeRepository.save(coffee));
+        CoffeeDto savedDto = coffeeMapper.toDto(coffeeRepository.save(coffee));
+        eventPublisher.publishEvent(new CoffeesSavedEvent(List.of(savedDto)));
+        return savedDto;
     }
 
     /** Update coffee. */
@@ -88,7 +109,9 @@ public class CoffeeService {
                         throw new IllegalArgumentException("Не передано ни одного корректного поля для обновления");
                     }
 
-                    return coffeeMapper.toDto(coffeeRepository.save(coffee));
+                    CoffeeDto savedDto = coffeeMapper.toDto(coffeeRepository.save(coffee));
+                    eventPublisher.publishEvent(new CoffeesSavedEvent(List.of(savedDto)));
+                    return savedDto;
                 })
                 .orElseThrow(() -> new IllegalArgumentException("Кофе с ID " + id + " не найден"));
     }
@@ -98,54 +121,52 @@ public class CoffeeService {
     /** Delete coffee. */
     @Transactional
     public boolean deleteCoffee(Long id) {
-        if (coffeeRepository.existsById(id)) {
-            Coffee coffee = coffeeRepository.findById(id).orElseThrow(() ->
-                    new IllegalArgumentException("Coffee not found"));
-
-            // Удаление кофе из всех заказов
-            for (Order order : coffee.getOrders()) {
-                order.getCoffees().remove(coffee);
-
-                // Если это единственный кофе в заказе, удаляем заказ
-                if (order.getCoffees().isEmpty()) {
-                    orderService.deleteOrder(order.getId());
-                } else {
-                    orderRepository.save(order);  // Сохраняем изменения в заказах
-                }
-            }
-
-            // Удаление кофе из избранного у всех пользователей
-            for (User user : userRepository.findAll()) {
-                user.getFavoriteCoffees().remove(coffee);
-                userRepository.save(user);
-            }
-
-            // Удаляем кофе из базы данных
-            coffeeRepository.deleteById(id);
-            return true;
+        return !deleteCoffees(List.of(id)).isEmpty();
+    }
+
+    /** Delete coffees; returns ids that actually existed. */
+    @Transactional
+    public List<Long> deleteCoffees(Collection<Long> ids) {
+        List<Long> coffeeIds = coffeeRepository.findExistingIds(ids);
+        if (coffeeIds.isEmpty()) {
+            return coffeeIds;
         }
-        return false; // Кофе с таким ID не найдено
+
+        // Всё, что нужно для событий и кэша, собираем до удаления связей
+        List<String> phoneNumbers = orderRepository.findPhoneNumbersByCoffeeIds(coffeeIds);
+        Map<Long, OrderDeletedEvent> emptiedOrders = new LinkedHashMap<>();
+        for (OrderRepository.OrderCoffeeRow row : orderRepository.findOrdersEmptiedByCoffeeRemoval(coffeeIds)) {
+            emptiedOrders.computeIfAbsent(row.getOrderId(),
+                    orderId -> new OrderDeletedEvent(orderId, row.getUserId(), new ArrayList<>()))
+                    .coffeeIds().add(row.getCoffeeId());
+        }
+
+        coffeeRepository.deleteFavoriteLinks(coffeeIds);
+        orderRepository.deleteCoffeeLinks(coffeeIds);
+        List<Long> orderIds = new ArrayList<>(emptiedOrders.keySet());
+        for (int from = 0; from < orderIds.size(); from += DELETE_CHUNK_SIZE) {
+            orderRepository.deleteAllByIdIn(orderIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, orderIds.size())));
+        }
+        coffeeRepository.deleteAllByIdIn(coffeeIds);
+
+        emptiedOrders.values().forEach(eventPublisher::publishEvent);
+        eventPublisher.publishEvent(new CoffeesDeletedEvent(coffeeIds));
+        phoneNumbers.forEach(orderService::clearCacheForValue);
+        return coffeeIds;
     }
 
     @Transactional(readOnly = true)
     public CoffeeWithOrdersDto getCoffeeWithOrders(Long id) {
-        Coffee coffee = coffeeRepository.findById(id)
+        // Проекции вместо загрузки сущностей: без снимков для dirty checking и прокси
+        CoffeeInfoDto coffee = coffeeRepository.findInfoById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Coffee not found with id: " + id));
 
-        List<Order> orders = orderRepository.findByCoffeeId(id);
-
         return new CoffeeWithOrdersDto(
                 coffee.getId(),
                 coffee.getName(),
                 coffee.getType(),
                 coffee.getPrice(),
-                orders.stream()
-                        .map(order -> new OrderInfoDto(
-                                order.getId(),
-                                order.getUser().getName(),
-                                order.getNotes()
-                        ))
-                        .toList()
+                orderRepository.findInfoByCoffeeId(id)
         );
     }
 }
@@ -0,0 +1,206 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.LogExtractCacheStatsDto;
+import jakarta.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Дисковый кэш выгрузок логов за день. Файл называется по ключу — идентичности диапазона
+ * байт в лог-файле, поэтому одинаковое содержимое не выгружается дважды и переживает
+ * перезапуск. Объём ограничен бюджетом в байтах, вытесняются давно не запрошенные файлы.
+ *
+ * <p>Выданный файл удерживается до {@link #release}: пока на него ссылается задача, он не
+ * вытесняется, даже если бюджет превышен. Файлы вне кэша (например, выгрузка текущего дня,
+ * который ещё дописывается) лежат в подкаталоге tmp и удаляются при освобождении.
+ */
+@Service
+@Slf4j
+public class LogExtractCache {
+
+    private static final String EXTENSION = ".log";
+
+    private final Path directory;
+    private final Path tempDirectory;
+    private final long maxBytes;
+
+    // Guarded by this; порядок доступа — от давних к свежим
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /** Constructor. */
+    public LogExtractCache(@Value("${logs.extracts.dir:logs/extracts}") String directory,
+                           @Value("${logs.extracts.max-size:1GB}") DataSize maxSize) {
+        this.directory = Paths.get(directory);
+        this.tempDirectory = this.directory.resolve("tmp");
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    /**
+     * Загрузка файлов, оставшихся с прошлого запуска. Порядок LRU восстанавливается по mtime,
+     * который обновляется при каждом попадании.
+     */
+    @PostConstruct
+    public synchronized void load() throws IOException {
+        Files.createDirectories(tempDirectory);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(tempDirectory)) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> cached = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            cached.forEach(files::add);
+        }
+        Map<Path, BasicFileAttributes> attributes = new LinkedHashMap<>();
+        for (Path file : files) {
+            attributes.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+        }
+        files.sort(Comparator.comparing(file -> attributes.get(file).lastModifiedTime()));
+
+        entries.clear();
+        diskBytes = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            add(name.substring(0, name.length() - EXTENSION.length()), file, attributes.get(file).size());
+        }
+        evictToBudget();
+    }
+
+    /** Удерживаемый файл из кэша или null при промахе. */
+    public synchronized File acquire(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || Files.notExists(entry.file)) {
+            if (entry != null) {
+                remove(key, entry);
+            }
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        entry.refs++;
+        try {
+            // mtime — порядок LRU после перезапуска, поэтому обращение его обновляет
+            Files.setLastModifiedTime(entry.file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.warn("Failed to touch log extract {}: {}", entry.file, e.getMessage());
+        }
+        return entry.file.toFile();
+    }
+
+    /** Новый файл для записи выгрузки; затем он передаётся в {@link #put} или {@link #release}. */
+    public Path createTempFile(String prefix) throws IOException {
+        return Files.createTempFile(tempDirectory, prefix + "-", EXTENSION);
+    }
+
+    /** Помещает записанный файл в кэш под ключом и возвращает удерживаемый файл кэша. */
+    public File put(String key, Path written) throws IOException {
+        Path target = directory.resolve(key + EXTENSION);
+        long size = Files.size(written);
+        synchronized (this) {
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                // Тот же диапазон уже выгрузили параллельно — содержимое совпадает
+                Files.deleteIfExists(written);
+                existing.refs++;
+                return existing.file.toFile();
+            }
+            Files.move(written, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            add(key, target, size).refs++;
+            evictToBudget();
+        }
+        return target.toFile();
+    }
+
+    /** Освобождает файл, выданный кэшем; файл вне кэша удаляется сразу. */
+    public void release(File file) {
+        Path path = file.toPath();
+        synchronized (this) {
+            String name = path.getFileName().toString();
+            Entry entry = path.startsWith(directory) && name.endsWith(EXTENSION)
+                    ? entries.get(name.substring(0, name.length() - EXTENSION.length())) : null;
+            if (entry != null && entry.file.equals(path)) {
+                entry.refs = Math.max(0, entry.refs - 1);
+                evictToBudget();
+                return;
+            }
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete log extract {}: {}", path, e.getMessage());
+        }
+    }
+
+    /** Снимок статистики кэша. */
+    public synchronized LogExtractCacheStatsDto stats() {
+        long requests = hitCount + missCount;
+        int pinned = (int) entries.values().stream().filter(entry -> entry.refs > 0).count();
+        return new LogExtractCacheStatsDto(hitCount, missCount, requests == 0 ? 0 : (double) hitCount / requests,
+                evictionCount, entries.size(), pinned, diskBytes, maxBytes);
+    }
+
+    private Entry add(String key, Path file, long size) {
+        Entry entry = new Entry(file, size);
+        entries.put(key, entry);
+        diskBytes += size;
+        return entry;
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.remove(key);
+        diskBytes -= entry.size;
+    }
+
+    /** Вытесняет давние неудерживаемые файлы, пока объём выше бюджета. */
+    private void evictToBudget() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (diskBytes > maxBytes && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.refs > 0) {
+                continue;
+            }
+            iterator.remove();
+            diskBytes -= entry.size;
+            evictionCount++;
+            try {
+                Files.deleteIfExists(entry.file);
+            } catch (IOException e) {
+                log.warn("Failed to delete log extract {}: {}", entry.file, e.getMessage());
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final Path file;
+        private final long size;
+        private int refs;
+
+        private Entry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+}
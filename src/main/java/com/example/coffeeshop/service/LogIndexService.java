@@ -0,0 +1,298 @@
+package com.example.coffeeshop.service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Индекс лог-файла на диске: для каждого часа — смещение первой записи. Индекс лежит рядом
+ * с логом в файле {@code <лог>.idx} и только дописывается: строки {@code H <час> <смещение>}
+ * и контрольные точки {@code E <смещение>} — докуда файл проиндексирован. Фоновый проход
+ * дочитывает только новый хвост лога; ротация определяется по отпечатку начала файла.
+ *
+ * <p>Сжатые архивы ротации (.gz) по смещениям не читаются, поэтому индексируется только
+ * текущий файл.
+ */
+@Service
+@Slf4j
+public class LogIndexService {
+
+    /** Сколько байт начала файла входит в отпечаток. */
+    private static final int FINGERPRINT_LENGTH = 1024;
+    /** Длина ключа часа в начале строки: yyyy-MM-ddTHH. */
+    private static final int HOUR_KEY_LENGTH = 13;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+    /** После стольких контрольных точек индекс при загрузке переписывается компактно. */
+    private static final int MAX_CHECKPOINTS = 1000;
+
+    private final Path logFile;
+    private final Path indexFile;
+
+    // Guarded by this
+    private final TreeMap<String, Long> hours = new TreeMap<>();
+    private long indexedUpTo;
+    private int fingerprintLength;
+    private long fingerprint;
+    private boolean persistent = true;
+
+    /** Constructor. */
+    public LogIndexService(@Value("${logging.file.name:logs/application.log}") String logFileName) {
+        this.logFile = Paths.get(logFileName);
+        this.indexFile = Paths.get(logFileName + ".idx");
+    }
+
+    /** Текущий лог-файл. */
+    public Path logFile() {
+        return logFile;
+    }
+
+    /** Загрузка индекса с диска и дочитывание непроиндексированного хвоста. */
+    @PostConstruct
+    public synchronized void load() {
+        hours.clear();
+        indexedUpTo = 0;
+        fingerprintLength = 0;
+        fingerprint = 0;
+        int checkpoints = 0;
+        if (Files.exists(indexFile)) {
+            try {
+                for (String line : Files.readAllLines(indexFile, StandardCharsets.US_ASCII)) {
+                    String[] parts = line.split(" ");
+                    switch (parts[0]) {
+                        case "F" -> {
+                            fingerprintLength = Integer.parseInt(parts[1]);
+                            fingerprint = Long.parseLong(parts[2], 16);
+                        }
+                        case "H" -> hours.put(parts[1], Long.parseLong(parts[2]));
+                        case "E" -> {
+                            indexedUpTo = Long.parseLong(parts[1]);
+                            checkpoints++;
+                        }
+                        default -> throw new IOException("Unknown index line: " + line);
+                    }
+                }
+                // Часы, дописанные после последней контрольной точки, могли остаться от сбоя
+                hours.values().removeIf(offset -> offset >= indexedUpTo);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Log index {} is unreadable, rebuilding: {}", indexFile, e.getMessage());
+                hours.clear();
+                indexedUpTo = 0;
+                fingerprintLength = 0;
+                checkpoints = Integer.MAX_VALUE;
+            }
+        }
+        if (checkpoints > MAX_CHECKPOINTS) {
+            rewriteIndex();
+        }
+        refresh();
+    }
+
+    /** Фоновое дочитывание новых строк лога. */
+    @Scheduled(fixedDelayString = "${logs.index.refresh-interval:5s}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Диапазон байт с записями за день или null, если их нет. Перед поиском дочитывается
+     * хвост лога, поэтому сканируются только байты, записанные после прошлого прохода.
+     */
+    public synchronized LogService.LogRange findRange(LocalDate date) {
+        refresh();
+        String day = date.toString();
+        Map.Entry<String, Long> first = hours.ceilingEntry(day);
+        if (first == null || !first.getKey().startsWith(day)) {
+            return null;
+        }
+        Map.Entry<String, Long> next = hours.ceilingEntry(date.plusDays(1).toString());
+        long end = next != null ? next.getValue() : indexedUpTo;
+        return new LogService.LogRange(logFile, fingerprint, date, first.getValue(), end);
+    }
+
+    private synchronized void refresh() {
+        if (Files.notExists(logFile)) {
+            if (indexedUpTo > 0 || fingerprintLength > 0) {
+                reset();
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < indexedUpTo || !fingerprintMatches(channel)) {
+                log.info("Log file {} was rotated, rebuilding index", logFile);
+                reset();
+            }
+            updateFingerprint(channel, size);
+            if (size > indexedUpTo) {
+                scan(channel, size);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to index log file {}: {}", logFile, e.getMessage());
+        }
+    }
+
+    /** Последовательный проход от indexedUpTo до последней целой строки. */
+    private void scan(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        byte[] prefix = new byte[HOUR_KEY_LENGTH];
+        int prefixLength = 0;
+        boolean collecting = true;
+        long lastLineEnd = indexedUpTo;
+        String lastHour = hours.isEmpty() ? "" : hours.lastKey();
+        TreeMap<String, Long> found = new TreeMap<>();
+
+        long position = indexedUpTo;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    lastLineEnd = position + i + 1;
+                    prefixLength = 0;
+                    collecting = true;
+                } else if (collecting) {
+                    prefix[prefixLength++] = b;
+                    if (prefixLength == HOUR_KEY_LENGTH) {
+                        collecting = false;
+                        String hour = hourKey(prefix);
+                        // Записи идут по времени; запись из прошлого часа начала часа не сдвигает
+                        if (hour != null && hour.compareTo(lastHour) > 0) {
+                            found.put(hour, lastLineEnd);
+                            lastHour = hour;
+                        }
+                    }
+                }
+            }
+            position += read;
+        }
+
+        // Недописанная последняя строка будет разобрана в следующий раз целиком
+        if (lastLineEnd > indexedUpTo) {
+            StringBuilder appended = new StringBuilder();
+            for (Map.Entry<String, Long> hour : found.entrySet()) {
+                if (hour.getValue() < lastLineEnd) {
+                    hours.put(hour.getKey(), hour.getValue());
+                    appended.append("H ").append(hour.getKey()).append(' ').append(hour.getValue()).append('\n');
+                }
+            }
+            indexedUpTo = lastLineEnd;
+            appended.append("E ").append(indexedUpTo).append('\n');
+            appendIndex(appended.toString());
+        }
+    }
+
+    /** Ключ часа yyyy-MM-ddTHH из начала строки или null; между датой и временем — 'T' или пробел. */
+    private static String hourKey(byte[] prefix) {
+        for (int i = 0; i < HOUR_KEY_LENGTH; i++) {
+            int b = prefix[i];
+            boolean valid = switch (i) {
+                case 4, 7 -> b == '-';
+                case 10 -> b == 'T' || b == ' ';
+                default -> b >= '0' && b <= '9';
+            };
+            if (!valid) {
+                return null;
+            }
+        }
+        char[] key = new char[HOUR_KEY_LENGTH];
+        for (int i = 0; i < HOUR_KEY_LENGTH; i++) {
+            key[i] = (char) prefix[i];
+        }
+        key[10] = 'T';
+        return new String(key);
+    }
+
+    private boolean fingerprintMatches(FileChannel channel) throws IOException {
+        return fingerprintLength == 0 || checksum(channel, fingerprintLength) == fingerprint;
+    }
+
+    /** Пока файл короче FINGERPRINT_LENGTH, отпечаток растёт вместе с ним. */
+    private void updateFingerprint(FileChannel channel, long size) throws IOException {
+        int length = (int) Math.min(size, FINGERPRINT_LENGTH);
+        if (length > fingerprintLength) {
+            fingerprintLength = length;
+            fingerprint = checksum(channel, length);
+            appendIndex("F " + fingerprintLength + " " + Long.toHexString(fingerprint) + "\n");
+        }
+    }
+
+    private static long checksum(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return -1;
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.flip());
+        return crc.getValue();
+    }
+
+    private void reset() {
+        hours.clear();
+        indexedUpTo = 0;
+        fingerprintLength = 0;
+        fingerprint = 0;
+        rewriteIndex();
+    }
+
+    private void appendIndex(String lines) {
+        if (!persistent) {
+            return;
+        }
+        try {
+            Files.writeString(indexFile, lines, StandardCharsets.US_ASCII,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            disablePersistence(e);
+        }
+    }
+
+    /** Компактная запись текущего состояния через временный файл. */
+    private void rewriteIndex() {
+        if (!persistent) {
+            return;
+        }
+        try {
+            Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.US_ASCII)) {
+                if (fingerprintLength > 0) {
+                    writer.write("F " + fingerprintLength + " " + Long.toHexString(fingerprint) + "\n");
+                }
+                for (Map.Entry<String, Long> hour : hours.entrySet()) {
+                    writer.write("H " + hour.getKey() + " " + hour.getValue() + "\n");
+                }
+                writer.write("E " + indexedUpTo + "\n");
+            }
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            disablePersistence(e);
+        }
+    }
+
+    private void disablePersistence(IOException e) {
+        // Индекс в памяти продолжает работать, теряется только быстрый старт
+        log.warn("Log index {} is not writable, keeping it in memory only: {}", indexFile, e.getMessage());
+        persistent = false;
+    }
+}
@@ -4,80 +4,177 @@ import com.example.coffeeshop.model.LogRequestInfo;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import org.springframework.scheduling.annotation.Async;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
 import org.springframework.stereotype.Service;
 
-/** Service. */
+/**
+ * Логи приложения. Границы дня берутся из индекса {@link LogIndexService}, а нужный
+ * диапазон байт копируется каналом без чтения в память.
+ */
 @Service
 public class LogService {
 
-    private final ConcurrentMap<String, LogRequestInfo> requestStore = new ConcurrentHashMap<>();
+    /** Размер блока копирования: между блоками проверяется отмена и обновляется прогресс. */
+    private static final long COPY_CHUNK_SIZE = 8L * 1024 * 1024;
+
     private final LogTaskService taskService;
+    private final LogIndexService logIndexService;
+    private final LogExtractCache extractCache;
 
     /**Service.*/
-    public LogService(LogTaskService taskService) {
+    public LogService(LogTaskService taskService, LogIndexService logIndexService, LogExtractCache extractCache) {
         this.taskService = taskService;
+        this.logIndexService = logIndexService;
+        this.extractCache = extractCache;
     }
 
-    /** Создание лог-запроса. */
+    /** Создание лог-запроса; для даты, которая уже выгружается, возвращается ID той же задачи. */
     public String createAsyncLog(String date) {
-        String id = UUID.randomUUID().toString();
-        requestStore.put(id, new LogRequestInfo(id, date, LogRequestInfo.Status.PENDING, null, null));
-
-        // Асинхронный запуск через отдельный бин
-        taskService.generateLogFileAsync(id, date, requestStore);
-        return id;
+        return taskService.submit(parseDate(date).toString());
     }
 
     /**GetStatus.*/
     public LogRequestInfo getStatus(String id) {
-        return requestStore.get(id);
+        return taskService.getJob(id);
     }
 
     /**GetFile.*/
     public File getReadyFile(String id) {
-        LogRequestInfo info = requestStore.get(id);
+        LogRequestInfo info = taskService.getJob(id);
         return (info != null && info.getStatus() == LogRequestInfo.Status.DONE) ? info.getFile() : null;
     }
 
-    /** Get log file. */
-    public File getLogFile(String date) throws IOException {
-        // Получаем текущую дату или переданную дату
-        LocalDate logDate = date != null ? LocalDate.parse(date, DateTimeFormatter.ISO_LOCAL_DATE) : LocalDate.now();
-        String logFileName = "application.log";
+    /** Отмена лог-запроса; false, если запроса нет. */
+    public boolean cancelAsyncLog(String id) {
+        return taskService.cancel(id);
+    }
 
-        // Путь к лог-файлу
-        Path logFilePath = Paths.get("logs", logFileName);
+    /**
+     * Диапазон байт лог-файла с записями за дату (текущую, если null). В диапазон входят и
+     * строки без даты — продолжения записей, например стектрейсы.
+     */
+    public LogRange findLogRange(String date) throws IOException {
+        LocalDate logDate = parseDate(date);
 
-        if (Files.notExists(logFilePath)) {
-            throw new FileNotFoundException("Log file not found: " + logFileName);
+        if (Files.notExists(logIndexService.logFile())) {
+            throw new FileNotFoundException("Log file not found: " + logIndexService.logFile().getFileName());
         }
 
-        // Чтение строк из файла
-        List<String> filteredLines = Files.readAllLines(logFilePath).stream()
-                .filter(line -> line.startsWith(logDate.toString()))
-                .toList();
-
-        if (filteredLines.isEmpty()) {
+        LogRange range = logIndexService.findRange(logDate);
+        if (range == null || range.length() == 0) {
             throw new FileNotFoundException("No logs found for date: " + logDate);
         }
+        return range;
+    }
+
+    /**
+     * Время последнего изменения записей дня. Закрытый день дописываться не может, поэтому
+     * для него это не позже начала следующего дня, даже если сам лог пишется дальше.
+     */
+    public long lastModified(LogRange range) throws IOException {
+        long fileModified = Files.getLastModifiedTime(range.file()).toMillis();
+        long nextDay = range.date().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.min(fileModified, nextDay);
+    }
+
+    /**
+     * Файл с записями за дату. Закрытые дни берутся из {@link LogExtractCache}, при промахе
+     * выгружаются в него; текущий день ещё дописывается и выгружается каждый раз заново.
+     * Прогресс сообщается в процентах; если cancelled вернул true, недописанный файл
+     * удаляется и бросается CancellationException. Файл освобождается через
+     * {@link #releaseLogFile}.
+     */
+    public File getLogFile(String date, IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+        LogRange range = findLogRange(date);
+        boolean cacheable = range.date().isBefore(LocalDate.now());
+        String key = "logs-" + range.date() + "-" + Long.toHexString(range.fileFingerprint()) + "-"
+                + Long.toHexString(range.start()) + "-" + Long.toHexString(range.end());
+        if (cacheable) {
+            File cached = extractCache.acquire(key);
+            if (cached != null) {
+                progress.accept(100);
+                return cached;
+            }
+        }
 
-        Path tempDir = Files.createTempDirectory(Paths.get(System.getProperty("java.io.tmpdir")), "logsafe");
-        Path tempFile = Files.createTempFile(tempDir, "logs-" + logDate, ".log");
+        Path tempFile = extractCache.createTempFile("logs-" + range.date());
+        boolean completed = false;
+
+        // Копируем диапазон файл-в-файл, без чтения строк в память
+        try (FileChannel source = FileChannel.open(range.file(), StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            for (long copied = 0; copied < range.length(); ) {
+                if (cancelled.getAsBoolean()) {
+                    throw new CancellationException("Log extraction for " + range.date() + " was cancelled");
+                }
+                long count = Math.min(COPY_CHUNK_SIZE, range.length() - copied);
+                transfer(source, range.start() + copied, count, target);
+                copied += count;
+                progress.accept((int) (copied * 100 / range.length()));
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        return cacheable ? extractCache.put(key, tempFile) : tempFile.toFile();
+    }
 
-        // Записываем отфильтрованные строки в новый файл
-        Files.write(tempFile, filteredLines);
+    /** Освобождает файл, полученный из {@link #getLogFile}. */
+    public void releaseLogFile(File file) {
+        extractCache.release(file);
+    }
 
-        // Возвращаем временный файл
-        return tempFile.toFile();
+    private static LocalDate parseDate(String date) {
+        if (date == null) {
+            return LocalDate.now();
+        }
+        try {
+            return LocalDate.parse(date, DateTimeFormatter.ISO_LOCAL_DATE);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Дата должна быть в формате YYYY-MM-DD: " + date);
+        }
+    }
+
+    private static void transfer(FileChannel source, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long transferred = source.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                throw new IOException("Log file was truncated while reading");
+            }
+            position += transferred;
+        }
+    }
+
+    /**
+     * Байты [start, end) лог-файла с записями за дату; fileFingerprint отличает файл
+     * от следующего после ротации.
+     */
+    public record LogRange(Path file, long fileFingerprint, LocalDate date, long start, long end) {
+
+        /** Length in bytes. */
+        public long length() {
+            return end - start;
+        }
+
+        /** Strong ETag: те же байты того же файла. */
+        public String etag() {
+            return "\"" + Long.toHexString(fileFingerprint) + "-" + Long.toHexString(start) + "-"
+                    + Long.toHexString(end) + "\"";
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,31 +2,175 @@ package com.example.coffeeshop.service;
 
 import com.example.coffeeshop.model.LogRequestInfo;
 import java.io.File;
-import java.util.concurrent.ConcurrentMap;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
-/**da.*/
+/**
+ * Задачи выгрузки логов за день. Выполняются на отдельном ограниченном пуле; одновременные
+ * запросы за одну дату получают одну задачу. Завершённые задачи удаляются по истечении TTL,
+ * их файлы освобождаются.
+ */
 @Service
+@Slf4j
 public class LogTaskService {
 
     private final LogService logService;
+    private final ThreadPoolTaskExecutor executor;
+    private final Duration ttl;
 
-    /**da.*/
-    public LogTaskService(@Lazy LogService logService) {
+    private final ConcurrentHashMap<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Job> activeByDate = new ConcurrentHashMap<>();
+
+    /** Constructor. */
+    public LogTaskService(@Lazy LogService logService,
+                          @Qualifier("logJobExecutor") ThreadPoolTaskExecutor executor,
+                          @Value("${logs.jobs.ttl:30m}") Duration ttl) {
         this.logService = logService;
+        this.executor = executor;
+        this.ttl = ttl;
+    }
+
+    /** Ставит выгрузку за дату в очередь или возвращает ID уже идущей; при переполнении — TaskRejectedException. */
+    public String submit(String date) {
+        Job[] created = new Job[1];
+        Job job = activeByDate.compute(date, (key, active) -> {
+            if (active != null && !active.isFinished()) {
+                return active;
+            }
+            created[0] = new Job(UUID.randomUUID().toString(), key);
+            return created[0];
+        });
+        if (created[0] == null) {
+            return job.id;
+        }
+
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.id);
+            activeByDate.remove(date, job);
+            throw new TaskRejectedException("Очередь выгрузки логов переполнена, повторите запрос позже", e);
+        }
+        return job.id;
+    }
+
+    /** Текущее состояние задачи или null. */
+    public LogRequestInfo getJob(String id) {
+        Job job = jobs.get(id);
+        return job == null ? null : job.info;
+    }
+
+    /** Отменяет задачу; завершённая задача удаляется, её файл освобождается. False, если задачи нет. */
+    public boolean cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        job.cancelled = true;
+        if (job.finish(LogRequestInfo.Status.CANCELLED, null, null)) {
+            activeByDate.remove(job.date, job);
+            Future<?> future = job.future;
+            if (future != null) {
+                // Без прерывания: копирование проверяет флаг между блоками и удаляет недописанный файл
+                future.cancel(false);
+            }
+        } else {
+            evict(job);
+        }
+        return true;
+    }
+
+    /** Удаление завершённых задач старше TTL с освобождением их файлов. */
+    @Scheduled(fixedDelayString = "${logs.jobs.eviction-interval:1m}")
+    public void evictExpired() {
+        Instant deadline = Instant.now().minus(ttl);
+        for (Job job : jobs.values()) {
+            Instant finishedAt = job.info.getFinishedAt();
+            if (finishedAt != null && finishedAt.isBefore(deadline)) {
+                evict(job);
+            }
+        }
     }
 
-    /**da.*/
-    @Async
-    public void generateLogFileAsync(String requestId, String date, ConcurrentMap<String, LogRequestInfo> store) {
+    private void run(Job job) {
+        if (!job.start()) {
+            return;
+        }
         try {
-            Thread.sleep(20000);
-            File file = logService.getLogFile(date);
-            store.put(requestId, new LogRequestInfo(requestId, date, LogRequestInfo.Status.DONE, file, null));
+            File file = logService.getLogFile(job.date, job::progress, () -> job.cancelled);
+            if (!job.finish(LogRequestInfo.Status.DONE, file, null)) {
+                // Задачу отменили, когда файл уже был готов
+                logService.releaseLogFile(file);
+            }
+        } catch (CancellationException e) {
+            job.finish(LogRequestInfo.Status.CANCELLED, null, null);
         } catch (Exception e) {
-            store.put(requestId, new LogRequestInfo(requestId, date, LogRequestInfo.Status.ERROR, null, e.getMessage()));
+            log.warn("Log job {} for {} failed: {}", job.id, job.date, e.getMessage());
+            job.finish(LogRequestInfo.Status.ERROR, null, e.getMessage());
+        } finally {
+            activeByDate.remove(job.date, job);
+        }
+    }
+
+    private void evict(Job job) {
+        if (jobs.remove(job.id, job) && job.info.getFile() != null) {
+            logService.releaseLogFile(job.info.getFile());
+        }
+    }
+
+    /** Задача; состояние публикуется неизменяемыми снимками LogRequestInfo. */
+    private static final class Job {
+        private final String id;
+        private final String date;
+        private volatile LogRequestInfo info;
+        private volatile boolean cancelled;
+        private volatile Future<?> future;
+
+        private Job(String id, String date) {
+            this.id = id;
+            this.date = date;
+            this.info = new LogRequestInfo(id, date, LogRequestInfo.Status.PENDING, null, null);
+        }
+
+        private boolean isFinished() {
+            return info.getFinishedAt() != null;
+        }
+
+        private synchronized boolean start() {
+            if (isFinished()) {
+                return false;
+            }
+            info = new LogRequestInfo(id, date, LogRequestInfo.Status.RUNNING, null, null, 0, null);
+            return true;
+        }
+
+        private synchronized void progress(int percent) {
+            if (!isFinished()) {
+                info = new LogRequestInfo(id, date, LogRequestInfo.Status.RUNNING, null, null, percent, null);
+            }
+        }
+
+        /** Переводит задачу в конечное состояние; false, если она уже завершена. */
+        private synchronized boolean finish(LogRequestInfo.Status status, File file, String error) {
+            if (isFinished()) {
+                return false;
+            }
+            int progress = status == LogRequestInfo.Status.DONE ? 100 : info.getProgress();
+            info = new LogRequestInfo(id, date, status, file, error, progress, Instant.now());
+            return true;
         }
     }
-}
\ No newline at end of file
+}
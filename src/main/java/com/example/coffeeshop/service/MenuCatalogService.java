@@ -0,0 +1,190 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.CoffeeDto;
+import com.example.coffeeshop.event.CoffeesSavedEvent;
+import com.example.coffeeshop.event.CoffeesDeletedEvent;
+import com.example.coffeeshop.mapper.CoffeeMapper;
+import com.example.coffeeshop.repository.CoffeeRepository;
+import com.example.coffeeshop.util.LongObjectHashMap;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32C;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Меню в памяти: неизменяемый снимок с версией, который целиком подменяется после каждого
+ * коммита изменений кофе. Читатели не берут блокировок и не ходят в БД.
+ */
+@Service
+public class MenuCatalogService {
+
+    private final CoffeeRepository coffeeRepository;
+    private final CoffeeMapper coffeeMapper;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    // Писатели сериализуются, чтобы изменения не терялись при одновременных коммитах
+    private final Object writeLock = new Object();
+
+    /** Constructor. */
+    @Autowired
+    public MenuCatalogService(CoffeeRepository coffeeRepository, CoffeeMapper coffeeMapper,
+                              ObjectMapper objectMapper) {
+        this.coffeeRepository = coffeeRepository;
+        this.coffeeMapper = coffeeMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Полная загрузка меню из БД. */
+    @PostConstruct
+    public void reload() {
+        List<CoffeeDto> coffees = coffeeMapper.toDto(coffeeRepository.findAll());
+        synchronized (writeLock) {
+            Snapshot current = snapshot.get();
+            snapshot.set(build(current == null ? 1 : current.version + 1, coffees));
+        }
+    }
+
+    /** Текущий снимок меню. */
+    public Snapshot current() {
+        return snapshot.get();
+    }
+
+    /** Coffees created or updated. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeesSaved(CoffeesSavedEvent event) {
+        apply(event.coffees(), List.of());
+    }
+
+    /** Coffees deleted. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeesDeleted(CoffeesDeletedEvent event) {
+        apply(List.of(), event.coffeeIds());
+    }
+
+    private void apply(Collection<CoffeeDto> saved, Collection<Long> deletedIds) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot.get();
+            LongObjectHashMap<CoffeeDto> byId = new LongObjectHashMap<>(current.coffees.length + saved.size());
+            for (CoffeeDto coffee : current.coffees) {
+                byId.put(coffee.getId(), coffee);
+            }
+            for (CoffeeDto coffee : saved) {
+                byId.put(coffee.getId(), copy(coffee));
+            }
+            for (Long id : deletedIds) {
+                byId.remove(id);
+            }
+            List<CoffeeDto> coffees = new ArrayList<>(byId.size());
+            byId.forEachValue(coffees::add);
+            snapshot.set(build(current.version + 1, coffees));
+        }
+    }
+
+    private Snapshot build(long version, List<CoffeeDto> coffees) {
+        CoffeeDto[] sorted = coffees.toArray(new CoffeeDto[0]);
+        Arrays.sort(sorted, Comparator.comparing(CoffeeDto::getId));
+        LongObjectHashMap<CoffeeDto> byId = new LongObjectHashMap<>(sorted.length);
+        for (CoffeeDto coffee : sorted) {
+            byId.put(coffee.getId(), coffee);
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(sorted);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать меню", e);
+        }
+        // ETag от содержимого, а не от версии: одинаковое меню даёт одинаковый ETag на всех инстансах
+        CRC32C crc = new CRC32C();
+        crc.update(json);
+        String etag = String.format("\"%08x-%x\"", crc.getValue(), json.length);
+        return new Snapshot(version, sorted, byId, json, etag);
+    }
+
+    private static CoffeeDto copy(CoffeeDto source) {
+        CoffeeDto copy = new CoffeeDto();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setType(source.getType());
+        copy.setPrice(source.getPrice());
+        return copy;
+    }
+
+    /** Неизменяемый снимок меню; наружу отдаются только копии DTO. */
+    public static final class Snapshot {
+        private final long version;
+        private final CoffeeDto[] coffees;
+        private final LongObjectHashMap<CoffeeDto> byId;
+        private final byte[] json;
+        private final String etag;
+
+        private Snapshot(long version, CoffeeDto[] coffees, LongObjectHashMap<CoffeeDto> byId,
+                         byte[] json, String etag) {
+            this.version = version;
+            this.coffees = coffees;
+            this.byId = byId;
+            this.json = json;
+            this.etag = etag;
+        }
+
+        /** Version. */
+        public long version() {
+            return version;
+        }
+
+        /** Strong ETag of the serialized menu. */
+        public String etag() {
+            return etag;
+        }
+
+        /** Menu serialized as a JSON array; callers must not modify it. */
+        public byte[] json() {
+            return json;
+        }
+
+        /** Number of coffees. */
+        public int size() {
+            return coffees.length;
+        }
+
+        /** Coffee by id. */
+        public Optional<CoffeeDto> find(long id) {
+            return Optional.ofNullable(byId.get(id)).map(MenuCatalogService::copy);
+        }
+
+        /** Up to {@code limit} coffees with id greater than {@code after}. */
+        public List<CoffeeDto> page(long after, int limit) {
+            int from = firstAfter(after);
+            int to = (int) Math.min(coffees.length, (long) from + limit);
+            List<CoffeeDto> page = new ArrayList<>(Math.max(0, to - from));
+            for (int i = from; i < to; i++) {
+                page.add(copy(coffees[i]));
+            }
+            return page;
+        }
+
+        private int firstAfter(long after) {
+            int low = 0;
+            int high = coffees.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (coffees[mid].getId() <= after) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.mapper.OrderMapper;
+import com.example.coffeeshop.model.Coffee;
+import com.example.coffeeshop.model.Order;
+import com.example.coffeeshop.repository.OrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/** Потоковая выгрузка всех заказов без загрузки таблицы в память. */
+@Service
+public class OrderExportService {
+
+    /** Сколько заказов держим в persistence context перед очисткой. */
+    private static final int CHUNK_SIZE = 100;
+    private static final String CSV_HEADER = "id,user_id,phone_number,user_name,coffee_ids,notes\n";
+
+    /** Export format. */
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        /** Parse format from request parameter. */
+        public static Format of(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неизвестный формат выгрузки: " + value);
+            }
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    /** Constructor. */
+    @Autowired
+    public OrderExportService(OrderRepository orderRepository, OrderMapper orderMapper,
+                              ObjectMapper objectMapper, EntityManager entityManager) {
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    /** Пишет все заказы в writer в указанном формате. */
+    @Transactional(readOnly = true)
+    public void exportOrders(Format format, Writer writer) throws IOException {
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        }
+
+        try (Stream<Order> orders = orderRepository.streamAllForExport()) {
+            Iterator<Order> iterator = orders.iterator();
+            List<Order> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    // Кофе подгружаются одним batch-запросом на весь chunk при первом обращении
+                    for (Order order : chunk) {
+                        writeOrder(format, order, writer);
+                    }
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeOrder(Format format, Order order, Writer writer) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(orderMapper.toDisplayDto(order)));
+            writer.write('\n');
+            return;
+        }
+
+        writer.write(String.valueOf(order.getId()));
+        writer.write(',');
+        writer.write(String.valueOf(order.getUser().getId()));
+        writer.write(',');
+        writer.write(csvField(order.getUser().getPhoneNumber()));
+        writer.write(',');
+        writer.write(csvField(order.getUser().getName()));
+        writer.write(',');
+        writer.write(order.getCoffees().stream()
+                .map(Coffee::getId)
+                .map(String::valueOf)
+                .collect(Collectors.joining(";")));
+        writer.write(',');
+        writer.write(csvField(order.getNotes()));
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
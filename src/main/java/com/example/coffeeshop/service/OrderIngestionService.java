@@ -0,0 +1,183 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.CreateOrderDto;
+import com.example.coffeeshop.dto.DisplayOrderDto;
+import com.example.coffeeshop.dto.OrderTicketDto;
+import com.example.coffeeshop.exception.IngestionQueueFullException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Асинхронный приём заказов: запросы кладутся в ограниченную очередь, а отдельный поток
+ * собирает их в пачки (по размеру или по времени) и коммитит одной транзакцией.
+ */
+@Service
+@Slf4j
+public class OrderIngestionService {
+
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long ticketTtlNanos;
+
+    private final BlockingQueue<PendingOrder> queue;
+    private final ConcurrentHashMap<String, OrderTicketDto> tickets = new ConcurrentHashMap<>();
+    private final Queue<FinishedTicket> finishedTickets = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+    private Thread committer;
+
+    /** Constructor. */
+    @Autowired
+    public OrderIngestionService(OrderService orderService,
+                                 @Value("${orders.ingestion.enabled:true}") boolean enabled,
+                                 @Value("${orders.ingestion.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${orders.ingestion.batch-size:200}") int batchSize,
+                                 @Value("${orders.ingestion.max-delay:50ms}") Duration maxDelay,
+                                 @Value("${orders.ingestion.ticket-ttl:10m}") Duration ticketTtl) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.ticketTtlNanos = ticketTtl.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /** Запуск потока группового коммита. */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        committer = new Thread(this::runCommitter, "order-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /** Остановка: дожидаемся потока и коммитим то, что осталось в очереди. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (committer != null) {
+            committer.interrupt();
+            committer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        List<PendingOrder> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            commit(rest);
+        }
+    }
+
+    /** Принимает заказ в очередь; при переполнении бросает {@link IngestionQueueFullException}. */
+    public OrderTicketDto submit(CreateOrderDto createOrderDto) {
+        String ticketId = UUID.randomUUID().toString();
+        OrderTicketDto ticket = new OrderTicketDto(ticketId, OrderTicketDto.Status.PENDING, null, null);
+        tickets.put(ticketId, ticket);
+
+        if (!enabled) {
+            // Асинхронный режим выключен — создаём заказ сразу
+            evictFinishedTickets();
+            commit(List.of(new PendingOrder(ticketId, createOrderDto)));
+            return tickets.get(ticketId);
+        }
+        if (!queue.offer(new PendingOrder(ticketId, createOrderDto))) {
+            tickets.remove(ticketId);
+            throw new IngestionQueueFullException("Очередь заказов переполнена, повторите запрос позже");
+        }
+        return ticket;
+    }
+
+    /** Текущее состояние квитанции или null. */
+    public OrderTicketDto getTicket(String ticketId) {
+        return tickets.get(ticketId);
+    }
+
+    private void runCommitter() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingOrder first = queue.poll(1, TimeUnit.SECONDS);
+                evictFinishedTickets();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingOrder next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                commit(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order committer failed: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        try {
+            List<DisplayOrderDto> created = orderService.createOrdersBulk(
+                    batch.stream().map(PendingOrder::order).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i).ticketId(), OrderTicketDto.Status.DONE, created.get(i).getId(), null);
+            }
+        } catch (RuntimeException batchError) {
+            // Одна плохая позиция не должна валить всю пачку — повторяем по одному
+            log.warn("Batch of {} orders failed ({}), retrying one by one", batch.size(), batchError.getMessage());
+            for (PendingOrder pending : batch) {
+                try {
+                    DisplayOrderDto created = orderService.createOrder(pending.order());
+                    complete(pending.ticketId(), OrderTicketDto.Status.DONE, created.getId(), null);
+                } catch (RuntimeException e) {
+                    complete(pending.ticketId(), OrderTicketDto.Status.FAILED, null, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void complete(String ticketId, OrderTicketDto.Status status, Long orderId, String error) {
+        tickets.put(ticketId, new OrderTicketDto(ticketId, status, orderId, error));
+        finishedTickets.add(new FinishedTicket(ticketId, System.nanoTime()));
+    }
+
+    private void evictFinishedTickets() {
+        long now = System.nanoTime();
+        FinishedTicket head;
+        while ((head = finishedTickets.peek()) != null && now - head.finishedAt() >= ticketTtlNanos) {
+            finishedTickets.poll();
+            tickets.remove(head.ticketId());
+        }
+    }
+
+    private record PendingOrder(String ticketId, CreateOrderDto order) {
+    }
+
+    private record FinishedTicket(String ticketId, long finishedAt) {
+    }
+}
@@ -1,20 +1,37 @@
 package com.example.coffeeshop.service;
 
+import com.example.coffeeshop.cache.BoundedCache;
 import com.example.coffeeshop.dto.*;
+import com.example.coffeeshop.event.OrderCreatedEvent;
+import com.example.coffeeshop.event.OrderDeletedEvent;
+import com.example.coffeeshop.event.UserSavedEvent;
+import com.example.coffeeshop.event.UsersDeletedEvent;
 import com.example.coffeeshop.mapper.OrderMapper;
 import com.example.coffeeshop.model.Coffee;
 import com.example.coffeeshop.model.Order;
 import com.example.coffeeshop.model.User;
 import com.example.coffeeshop.repository.CoffeeRepository;
 import com.example.coffeeshop.repository.OrderRepository;
+import com.example.coffeeshop.repository.OrderSpecifications;
 import com.example.coffeeshop.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /** Service. */
@@ -26,23 +43,46 @@ public class OrderService {
     private final UserRepository userRepository;
     private final OrderMapper orderMapper;
     private final CoffeeRepository coffeeRepository;
-    private final Map<String, List<DisplayOrderDto>> orderFilterCache;
+    private final BoundedCache<String, List<DisplayOrderDto>> orderFilterCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PhoneIndexService phoneIndexService;
 
     /** Constructor. */
     @Autowired
     public OrderService(OrderRepository orderRepository, UserRepository userRepository, OrderMapper orderMapper,
-                        CoffeeRepository coffeeRepository, Map<String, List<DisplayOrderDto>> orderFilterCache) {
+                        CoffeeRepository coffeeRepository, BoundedCache<String, List<DisplayOrderDto>> orderFilterCache,
+                        ApplicationEventPublisher eventPublisher, PhoneIndexService phoneIndexService) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
         this.orderMapper = orderMapper;
         this.coffeeRepository = coffeeRepository;
         this.orderFilterCache = orderFilterCache;
+        this.eventPublisher = eventPublisher;
+        this.phoneIndexService = phoneIndexService;
     }
 
-    public List<DisplayOrderDto> getAllOrders() {
-        return orderRepository.findAll().stream()
-                .map(orderMapper::toDisplayDto)
-                .toList();
+    /** Get orders page. */
+    @Transactional(readOnly = true)
+    public CursorPageDto<DisplayOrderDto> getOrdersPage(Long after, int limit) {
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        List<Order> orders = orderRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after,
+                Limit.of(limit + 1));
+        boolean hasNext = orders.size() > limit;
+        List<Order> page = hasNext ? orders.subList(0, limit) : orders;
+        Long nextCursor = hasNext ? page.get(page.size() - 1).getId() : null;
+        return new CursorPageDto<>(orderMapper.toDisplayDto(page), nextCursor);
+    }
+
+    /** Search orders by combined criteria. */
+    @Transactional(readOnly = true)
+    public CursorPageDto<DisplayOrderDto> searchOrders(OrderSearchCriteria criteria, Long after, int limit) {
+        // Один SQL-запрос со всеми условиями и LIMIT; кофе подгружаются batch-запросом
+        List<Order> orders = orderRepository.findBy(OrderSpecifications.matching(criteria, after),
+                query -> query.sortBy(Sort.by("id")).limit(limit + 1).all());
+        boolean hasNext = orders.size() > limit;
+        List<Order> page = hasNext ? orders.subList(0, limit) : orders;
+        Long nextCursor = hasNext ? page.get(page.size() - 1).getId() : null;
+        return new CursorPageDto<>(orderMapper.toDisplayDto(page), nextCursor);
     }
 
     /** Create order. */
@@ -67,6 +107,8 @@ public class OrderService {
 
         Order savedOrder = orderRepository.save(order);
         DisplayOrderDto savedDto = orderMapper.toDisplayDto(savedOrder);
+        eventPublisher.publishEvent(new OrderCreatedEvent(savedOrder.getId(), user.getId(),
+                createOrderDto.getCoffeesIds()));
 
         log.info("[CACHE]: New order created. Clearing affected cache for user phoneNumber={}", user.getPhoneNumber());
         clearCacheForValue(user.getPhoneNumber());
@@ -74,6 +116,70 @@ public class OrderService {
         return savedDto;
     }
 
+    /** Bulk create orders. */
+    @Transactional
+    public List<DisplayOrderDto> createOrdersBulk(List<CreateOrderDto> createOrderDtos) {
+        if (createOrderDtos == null || createOrderDtos.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> coffeeIds = new HashSet<>();
+        for (CreateOrderDto dto : createOrderDtos) {
+            if (dto.getCoffeesIds() == null || dto.getCoffeesIds().isEmpty()) {
+                throw new EntityNotFoundException("Coffees not found");
+            }
+            userIds.add(dto.getUserId());
+            coffeeIds.addAll(dto.getCoffeesIds());
+        }
+
+        // Одна выборка на всех пользователей и одна на все кофе
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Coffee> coffees = coffeeRepository.findAllById(coffeeIds).stream()
+                .collect(Collectors.toMap(Coffee::getId, Function.identity()));
+
+        List<Order> orders = new ArrayList<>(createOrderDtos.size());
+        for (CreateOrderDto dto : createOrderDtos) {
+            User user = users.get(dto.getUserId());
+            if (user == null) {
+                throw new EntityNotFoundException("User with id " + dto.getUserId() + " not found");
+            }
+            List<Coffee> orderCoffees = dto.getCoffeesIds().stream()
+                    .map(coffeeId -> {
+                        Coffee coffee = coffees.get(coffeeId);
+                        if (coffee == null) {
+                            throw new EntityNotFoundException("Coffee with id " + coffeeId + " not found");
+                        }
+                        return coffee;
+                    })
+                    .toList();
+
+            Order order = new Order();
+            order.setUser(user);
+            order.setNotes(dto.getNotes());
+            order.setCoffees(orderCoffees);
+            orders.add(order);
+        }
+
+        // ID выдаются из последовательности при persist, вставки уходят JDBC-пачками при flush
+        orderRepository.saveAll(orders);
+        orderRepository.flush();
+        for (Order order : orders) {
+            eventPublisher.publishEvent(new OrderCreatedEvent(order.getId(), order.getUser().getId(),
+                    order.getCoffees().stream().map(Coffee::getId).toList()));
+        }
+
+        Set<String> phoneNumbers = orders.stream()
+                .map(order -> order.getUser().getPhoneNumber())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        log.info("[CACHE]: {} orders created in bulk. Clearing affected cache for {} phone numbers",
+                orders.size(), phoneNumbers.size());
+        phoneNumbers.forEach(this::clearCacheForValue);
+
+        return orderMapper.toDisplayDto(orders);
+    }
+
     /** Delete order. */
     @Transactional
     public boolean deleteOrder(Long id) {
@@ -81,8 +187,10 @@ public class OrderService {
         if (orderOpt.isPresent()) {
             Order order = orderOpt.get();
             String phoneNumber = order.getUser().getPhoneNumber();
+            List<Long> coffeeIds = order.getCoffees().stream().map(Coffee::getId).toList();
 
             orderRepository.deleteById(id);
+            eventPublisher.publishEvent(new OrderDeletedEvent(id, order.getUser().getId(), coffeeIds));
 
             log.info("[CACHE]: Order deleted (ID={}). Clearing affected cache for user phoneNumber={}", id, phoneNumber);
             clearCacheForValue(phoneNumber);
@@ -105,49 +213,67 @@ public class OrderService {
     }
 
     /** Filter by user. */
+    @Transactional(readOnly = true)
     public List<DisplayOrderDto> filterCarsByBrand(String phoneNumber) {
-        if (orderFilterCache.containsKey(phoneNumber)) {
+        // Кэш по цифрам номера: разные записи одного номера попадают в одну запись кэша
+        String cacheKey = PhoneIndexService.normalize(phoneNumber);
+        List<DisplayOrderDto> cachedOrders = orderFilterCache.get(cacheKey);
+        if (cachedOrders != null) {
             log.info("[CACHE]: Cache hit for filter: brand='{}'", phoneNumber);
-            return orderFilterCache.get(phoneNumber);
+            return cachedOrders;
+        }
+
+        OptionalLong userId = phoneIndexService.findUserId(phoneNumber);
+        if (userId.isEmpty()) {
+            // Индекс не знает номер однозначно — ищем в БД по тем же цифрам, без кэширования
+            log.info("[CACHE]: Phone '{}' not in index. Querying DB by phone digits.", phoneNumber);
+            List<Long> userIds = phoneIndexService.findUserIdsByDigits(phoneNumber);
+            return userIds.isEmpty() ? List.of()
+                    : orderMapper.toDisplayDto(orderRepository.findByUserIdInOrderByIdAsc(userIds));
         }
 
         log.info("[CACHE]: Cache miss for filter: brand='{}'. Querying DB.", phoneNumber);
 
-        List<DisplayOrderDto> filteredOrders = orderRepository.findAllByUserPhoneNumber(phoneNumber)
-                .stream()
-                .map(orderMapper::toDisplayDto)
-                .toList();
+        List<DisplayOrderDto> filteredOrders = orderMapper.toDisplayDto(
+                orderRepository.findByUserId(userId.getAsLong()));
 
-        orderFilterCache.put(phoneNumber, filteredOrders);
+        orderFilterCache.put(cacheKey, filteredOrders);
         log.info("[CACHE]: Cache populated for filter: brand='{}'", phoneNumber);
 
         return filteredOrders;
     }
 
+    /** User created, updated or deleted: cached orders carry user data. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSaved(UserSavedEvent event) {
+        clearCacheForValue(event.previousPhoneNumber());
+        clearCacheForValue(event.phoneNumber());
+    }
+
+    /** Users deleted: все затронутые записи кэша убираются за один проход. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersDeleted(UsersDeletedEvent event) {
+        orderFilterCache.invalidateAll(event.phoneNumbers().stream().map(PhoneIndexService::normalize).toList());
+    }
+
     /** Очистка кэша по номеру телефона юзера. */
     protected void clearCacheForValue(String phoneNumber) {
         if (phoneNumber != null) {
-            orderFilterCache.remove(phoneNumber);
+            orderFilterCache.invalidate(PhoneIndexService.normalize(phoneNumber));
         }
     }
 
     @Transactional(readOnly = true)
     public OrderWithDetailsDto getOrderWithDetails(Long id) {
-        Order order = orderRepository.findWithDetailsById(id)
+        // Проекции вместо загрузки сущностей: без снимков для dirty checking и прокси
+        OrderInfoDto order = orderRepository.findInfoById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
 
         return new OrderWithDetailsDto(
                 order.getId(),
-                order.getUser().getName(),
+                order.getUser(),
                 order.getNotes(),
-                order.getCoffees().stream()
-                        .map(coffee -> new CoffeeInfoDto(
-                                coffee.getId(),
-                                coffee.getName(),
-                                coffee.getType(),
-                                coffee.getPrice()
-                        ))
-                        .toList()
+                orderRepository.findCoffeeInfoByOrderId(id)
         );
     }
 
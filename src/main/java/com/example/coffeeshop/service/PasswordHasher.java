@@ -0,0 +1,125 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.exception.PasswordHashingException;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Хеширование паролей с солью: результат хранится как {@code алгоритм$соль$хеш} в hex.
+ * Дайджест создаётся один раз на поток, массовое хеширование идёт на ограниченном пуле,
+ * при переполнении очереди работа выполняется в вызывающем потоке.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final char SEPARATOR = '$';
+    /** Сколько паролей один поток пула хеширует за задачу. */
+    private static final int SLICE_SIZE = 256;
+
+    private final String algorithm;
+    private final int saltBytes;
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<MessageDigest> digests;
+    private final ThreadPoolExecutor executor;
+
+    /** Constructor. */
+    public PasswordHasher(@Value("${users.password.algorithm:SHA-256}") String algorithm,
+                          @Value("${users.password.salt-bytes:16}") int saltBytes,
+                          @Value("${users.password.hash-threads:4}") int threads) {
+        this.algorithm = algorithm;
+        this.saltBytes = saltBytes;
+        // Неизвестный алгоритм — ошибка конфигурации, её лучше увидеть при старте
+        newDigest(algorithm);
+        this.digests = ThreadLocal.withInitial(() -> newDigest(algorithm));
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /** Остановка пула. */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /** Хеш пароля со случайной солью. */
+    public String hash(String password) {
+        byte[] salt = new byte[saltBytes];
+        random.nextBytes(salt);
+        byte[] hash = digest(salt, password);
+
+        StringBuilder result = new StringBuilder(algorithm.length() + 2 + 2 * (salt.length + hash.length));
+        result.append(algorithm).append(SEPARATOR);
+        appendHex(result, salt);
+        result.append(SEPARATOR);
+        appendHex(result, hash);
+        return result.toString();
+    }
+
+    /** Хеши паролей в том же порядке; большие списки делятся между потоками пула. */
+    public List<String> hashAll(List<String> passwords) {
+        if (passwords.size() <= SLICE_SIZE) {
+            return passwords.stream().map(this::hash).toList();
+        }
+        List<Future<List<String>>> slices = new ArrayList<>();
+        for (int from = 0; from < passwords.size(); from += SLICE_SIZE) {
+            List<String> slice = passwords.subList(from, Math.min(from + SLICE_SIZE, passwords.size()));
+            slices.add(executor.submit(() -> slice.stream().map(this::hash).toList()));
+        }
+        List<String> hashes = new ArrayList<>(passwords.size());
+        try {
+            for (Future<List<String>> slice : slices) {
+                hashes.addAll(slice.get());
+            }
+        } catch (InterruptedException e) {
+            slices.forEach(slice -> slice.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingException("Хеширование паролей прервано", e);
+        } catch (ExecutionException e) {
+            throw new PasswordHashingException("Ошибка хеширования пароля", e.getCause());
+        }
+        return hashes;
+    }
+
+    private byte[] digest(byte[] salt, String password) {
+        return digest(digests.get(), salt, password);
+    }
+
+    private static byte[] digest(MessageDigest digest, byte[] salt, String password) {
+        digest.reset();
+        digest.update(salt);
+        return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest newDigest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new PasswordHashingException("Алгоритм хеширования не поддерживается: " + algorithm, e);
+        }
+    }
+
+    private static void appendHex(StringBuilder target, byte[] bytes) {
+        for (byte b : bytes) {
+            target.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.PhoneIndexStatsDto;
+import com.example.coffeeshop.event.UserSavedEvent;
+import com.example.coffeeshop.event.UsersDeletedEvent;
+import com.example.coffeeshop.repository.UserRepository;
+import com.example.coffeeshop.util.LongLongHashMap;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Индекс телефон → ID пользователя в памяти. Номер сводится к цифрам и упаковывается в long
+ * (количество цифр в старших битах, значение в младших), поэтому форматирование номера не важно.
+ * Если одному ключу соответствуют несколько пользователей или номер не кодируется,
+ * вызывающий код ищет в БД через {@link #findUserIdsByDigits} — по тем же цифрам, поэтому оба
+ * пути находят одних и тех же пользователей.
+ */
+@Service
+public class PhoneIndexService {
+
+    /** E.164 — не больше 15 цифр, 10^15 < 2^50. */
+    private static final int MAX_DIGITS = 15;
+    private static final int DIGITS_SHIFT = 50;
+    private static final long NO_KEY = 0L;
+    private static final long AMBIGUOUS = -1L;
+    private static final int LOAD_CHUNK_SIZE = 10000;
+
+    private final UserRepository userRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final LongLongHashMap index = new LongLongHashMap();
+    private int ambiguousCount;
+    private int unindexedCount;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /** Constructor. */
+    @Autowired
+    public PhoneIndexService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /** Загрузка индекса из БД пачками по ID. */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            ambiguousCount = 0;
+            unindexedCount = 0;
+            long after = 0L;
+            List<UserRepository.UserPhone> chunk;
+            do {
+                chunk = userRepository.findPhonesAfter(after, Limit.of(LOAD_CHUNK_SIZE));
+                for (UserRepository.UserPhone user : chunk) {
+                    add(encode(user.getPhoneNumber()), user.getId());
+                    after = user.getId();
+                }
+            } while (chunk.size() == LOAD_CHUNK_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** ID пользователя с таким номером, если индекс знает его однозначно. */
+    public OptionalLong findUserId(String phoneNumber) {
+        long key = encode(phoneNumber);
+        long userId = NO_KEY;
+        if (key != NO_KEY) {
+            lock.readLock().lock();
+            try {
+                userId = index.getOrDefault(key, NO_KEY);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        if (userId == NO_KEY || userId == AMBIGUOUS) {
+            fallbacks.increment();
+            return OptionalLong.empty();
+        }
+        hits.increment();
+        return OptionalLong.of(userId);
+    }
+
+    /** ID пользователей, номер которых состоит из тех же цифр, — запросом в БД, мимо индекса. */
+    public List<Long> findUserIdsByDigits(String phoneNumber) {
+        String digits = normalize(phoneNumber);
+        if (digits.isEmpty()) {
+            return List.of();
+        }
+        StringBuilder pattern = new StringBuilder(2 * digits.length() + 1).append('%');
+        for (int i = 0; i < digits.length(); i++) {
+            pattern.append(digits.charAt(i)).append('%');
+        }
+        return userRepository.findPhonesLike(pattern.toString()).stream()
+                .filter(user -> digits.equals(normalize(user.getPhoneNumber())))
+                .map(UserRepository.UserPhone::getId)
+                .toList();
+    }
+
+    /** User created or updated. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserSaved(UserSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.previousPhoneNumber() != null) {
+                remove(encode(event.previousPhoneNumber()), event.userId());
+            }
+            add(encode(event.phoneNumber()), event.userId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Users deleted. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersDeleted(UsersDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < event.userIds().size(); i++) {
+                remove(encode(event.phoneNumbers().get(i)), event.userIds().get(i));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Statistics snapshot. */
+    public PhoneIndexStatsDto stats() {
+        lock.readLock().lock();
+        try {
+            // Два массива long на слот; заголовки объектов не учитываем
+            long memoryBytes = 2L * Long.BYTES * index.capacity();
+            return new PhoneIndexStatsDto(index.size(), ambiguousCount, unindexedCount, index.capacity(),
+                    memoryBytes, hits.sum(), fallbacks.sum());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Цифры номера; по ним же строится ключ кэша заказов. */
+    public static String normalize(String phoneNumber) {
+        if (phoneNumber == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    static long encode(String phoneNumber) {
+        if (phoneNumber == null) {
+            return NO_KEY;
+        }
+        long value = 0;
+        int digits = 0;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_DIGITS) {
+                    return NO_KEY;
+                }
+                value = value * 10 + (c - '0');
+            }
+        }
+        // Число цифр в ключе сохраняет ведущие нули: "029..." и "29..." дают разные ключи
+        return digits == 0 ? NO_KEY : ((long) digits << DIGITS_SHIFT) | value;
+    }
+
+    private void add(long key, long userId) {
+        if (key == NO_KEY) {
+            unindexedCount++;
+            return;
+        }
+        long current = index.getOrDefault(key, NO_KEY);
+        if (current == NO_KEY || current == userId) {
+            index.put(key, userId);
+        } else if (current != AMBIGUOUS) {
+            index.put(key, AMBIGUOUS);
+            ambiguousCount++;
+        }
+    }
+
+    private void remove(long key, long userId) {
+        if (key == NO_KEY) {
+            unindexedCount = Math.max(0, unindexedCount - 1);
+            return;
+        }
+        long current = index.getOrDefault(key, NO_KEY);
+        if (current == userId) {
+            index.remove(key);
+        } else if (current == AMBIGUOUS) {
+            // Кто остался за неоднозначным ключом, индекс не знает — пересчитываем по БД
+            List<Long> remaining = findUserIdsByDigits(digitsOf(key)).stream()
+                    .filter(id -> id != userId)
+                    .toList();
+            if (remaining.size() <= 1) {
+                ambiguousCount--;
+                if (remaining.isEmpty()) {
+                    index.remove(key);
+                } else {
+                    index.put(key, remaining.get(0));
+                }
+            }
+        }
+    }
+
+    private static String digitsOf(long key) {
+        int digits = (int) (key >>> DIGITS_SHIFT);
+        String value = Long.toString(key & ((1L << DIGITS_SHIFT) - 1));
+        return "0".repeat(digits - value.length()) + value;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.CoffeeDto;
+import com.example.coffeeshop.dto.CoffeeRecommendationDto;
+import com.example.coffeeshop.event.CoffeesDeletedEvent;
+import com.example.coffeeshop.event.OrderCreatedEvent;
+import com.example.coffeeshop.event.OrderDeletedEvent;
+import com.example.coffeeshop.repository.FavoriteCoffeeRepository;
+import com.example.coffeeshop.util.LongLongHashMap;
+import com.example.coffeeshop.util.LongObjectHashMap;
+import jakarta.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * «С этим также заказывают»: разреженная матрица совместных заказов кофе × кофе на примитивных
+ * map. Строится из order_coffee при старте и обновляется событиями создания и удаления заказов.
+ */
+@Service
+public class RecommendationService {
+
+    private static final int FETCH_SIZE = 1000;
+    // Веса в целых числах: базовая связь ×4, связь с избранным ×2, избранное получает ещё половину веса
+    private static final long BASE_WEIGHT = 4;
+    private static final long FAVORITES_WEIGHT = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FavoriteCoffeeRepository favoriteCoffeeRepository;
+    private final MenuCatalogService menuCatalogService;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final LongObjectHashMap<LongLongHashMap> cooccurrence = new LongObjectHashMap<>();
+
+    /** Constructor. */
+    @Autowired
+    public RecommendationService(JdbcTemplate jdbcTemplate, FavoriteCoffeeRepository favoriteCoffeeRepository,
+                                 MenuCatalogService menuCatalogService, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.favoriteCoffeeRepository = favoriteCoffeeRepository;
+        this.menuCatalogService = menuCatalogService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Полная перестройка матрицы из order_coffee одним потоковым проходом. */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            cooccurrence.clear();
+            OrderAccumulator accumulator = new OrderAccumulator();
+            // Postgres отдаёт строки порциями fetch size только внутри транзакции
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement(
+                        "SELECT order_id, coffee_id FROM order_coffee ORDER BY order_id");
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, (RowCallbackHandler) rs -> accumulator.accept(rs.getLong(1), rs.getLong(2))));
+            accumulator.flush();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Order created. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        apply(event.coffeeIds(), 1);
+    }
+
+    /** Order deleted. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderDeleted(OrderDeletedEvent event) {
+        apply(event.coffeeIds(), -1);
+    }
+
+    /** Coffees deleted. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeesDeleted(CoffeesDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Long coffeeId : event.coffeeIds()) {
+                LongLongHashMap row = cooccurrence.remove(coffeeId);
+                if (row != null) {
+                    // Матрица симметрична: соседи удалённого кофе знают о нём в своих строках
+                    row.forEach((otherId, count) -> {
+                        LongLongHashMap otherRow = cooccurrence.get(otherId);
+                        if (otherRow != null) {
+                            otherRow.remove(coffeeId);
+                        }
+                    });
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Топ-k кофе, которые чаще всего заказывали вместе с указанным. Если задан пользователь,
+     * учитываются связи с его избранным, а сами избранные кофе поднимаются выше.
+     */
+    public List<CoffeeRecommendationDto> recommend(long coffeeId, Long userId, int limit) {
+        long[] favorites = userId == null ? new long[0]
+                : favoriteCoffeeRepository.findCoffeeIdsByUserId(userId).stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(favorites);
+
+        TopK top = new TopK(limit);
+        lock.readLock().lock();
+        try {
+            LongLongHashMap row = cooccurrence.get(coffeeId);
+            if (favorites.length == 0) {
+                if (row != null) {
+                    row.forEach(top::offer);
+                }
+            } else {
+                LongLongHashMap scores = new LongLongHashMap();
+                if (row != null) {
+                    row.forEach((otherId, count) -> scores.addTo(otherId, BASE_WEIGHT * count));
+                }
+                for (long favoriteId : favorites) {
+                    LongLongHashMap favoriteRow = cooccurrence.get(favoriteId);
+                    if (favoriteRow != null) {
+                        favoriteRow.forEach((otherId, count) -> scores.addTo(otherId, FAVORITES_WEIGHT * count));
+                    }
+                }
+                scores.forEach((otherId, score) -> {
+                    if (otherId == coffeeId) {
+                        return;
+                    }
+                    top.offer(otherId, Arrays.binarySearch(favorites, otherId) >= 0 ? score + score / 2 : score);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        MenuCatalogService.Snapshot menu = menuCatalogService.current();
+        List<CoffeeRecommendationDto> result = new ArrayList<>(top.size);
+        for (int i = 0; i < top.size; i++) {
+            CoffeeDto coffee = menu.find(top.ids[i]).orElse(null);
+            if (coffee != null) {
+                result.add(new CoffeeRecommendationDto(coffee, top.scores[i]));
+            }
+        }
+        return result;
+    }
+
+    private void apply(Collection<Long> coffeeIds, int delta) {
+        if (coffeeIds == null || coffeeIds.size() < 2) {
+            return;
+        }
+        long[] distinct = coffeeIds.stream().mapToLong(Long::longValue).distinct().toArray();
+        lock.writeLock().lock();
+        try {
+            addPairs(distinct, distinct.length, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Guarded by lock
+    private void addPairs(long[] coffeeIds, int count, int delta) {
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < count; j++) {
+                if (i != j && coffeeIds[i] != coffeeIds[j]) {
+                    increment(coffeeIds[i], coffeeIds[j], delta);
+                }
+            }
+        }
+    }
+
+    private void increment(long coffeeId, long otherId, int delta) {
+        LongLongHashMap row = cooccurrence.get(coffeeId);
+        if (row == null) {
+            if (delta < 0) {
+                return;
+            }
+            row = new LongLongHashMap(4);
+            cooccurrence.put(coffeeId, row);
+        }
+        if (row.addTo(otherId, delta) <= 0) {
+            row.remove(otherId);
+            if (row.size() == 0) {
+                cooccurrence.remove(coffeeId);
+            }
+        }
+    }
+
+    /** Собирает кофе одного заказа из отсортированного по order_id потока строк. */
+    private final class OrderAccumulator {
+        private long currentOrderId = Long.MIN_VALUE;
+        private long[] coffeeIds = new long[8];
+        private int count;
+
+        void accept(long orderId, long coffeeId) {
+            if (orderId != currentOrderId) {
+                flush();
+                currentOrderId = orderId;
+            }
+            for (int i = 0; i < count; i++) {
+                if (coffeeIds[i] == coffeeId) {
+                    return;
+                }
+            }
+            if (count == coffeeIds.length) {
+                coffeeIds = Arrays.copyOf(coffeeIds, count * 2);
+            }
+            coffeeIds[count++] = coffeeId;
+        }
+
+        void flush() {
+            if (count > 1) {
+                addPairs(coffeeIds, count, 1);
+            }
+            count = 0;
+        }
+    }
+
+    /** Первые k по убыванию веса, при равенстве — по возрастанию ID; вставкой в маленький массив. */
+    private static final class TopK {
+        private final long[] ids;
+        private final long[] scores;
+        private int size;
+
+        TopK(int k) {
+            this.ids = new long[k];
+            this.scores = new long[k];
+        }
+
+        void offer(long id, long score) {
+            if (score <= 0) {
+                return;
+            }
+            int position = size;
+            while (position > 0 && ranksBefore(id, score, ids[position - 1], scores[position - 1])) {
+                position--;
+            }
+            if (position >= ids.length) {
+                return;
+            }
+            int last = Math.min(size, ids.length - 1);
+            System.arraycopy(ids, position, ids, position + 1, last - position);
+            System.arraycopy(scores, position, scores, position + 1, last - position);
+            ids[position] = id;
+            scores[position] = score;
+            size = Math.min(size + 1, ids.length);
+        }
+
+        private static boolean ranksBefore(long id, long score, long otherId, long otherScore) {
+            return score > otherScore || (score == otherScore && id < otherId);
+        }
+    }
+}
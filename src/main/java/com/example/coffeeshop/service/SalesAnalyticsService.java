@@ -0,0 +1,192 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.CoffeeDto;
+import com.example.coffeeshop.dto.CoffeeSalesDto;
+import com.example.coffeeshop.event.CoffeesSavedEvent;
+import com.example.coffeeshop.event.CoffeesDeletedEvent;
+import com.example.coffeeshop.event.OrderCreatedEvent;
+import com.example.coffeeshop.event.OrderDeletedEvent;
+import com.example.coffeeshop.model.Coffee;
+import com.example.coffeeshop.repository.CoffeeRepository;
+import com.example.coffeeshop.repository.OrderRepository;
+import com.example.coffeeshop.util.LongObjectHashMap;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Агрегаты продаж в памяти: количество позиций и выручка по каждому кофе.
+ * Строятся из БД один раз при старте и дальше обновляются событиями после коммита.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private static final Comparator<CoffeeSales> RANKING = Comparator
+            .comparingLong((CoffeeSales sales) -> sales.orderCount).reversed()
+            .thenComparingLong(sales -> sales.coffeeId);
+
+    private final OrderRepository orderRepository;
+    private final CoffeeRepository coffeeRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private final LongObjectHashMap<CoffeeSales> sales = new LongObjectHashMap<>();
+    private final TreeSet<CoffeeSales> ranking = new TreeSet<>(RANKING);
+
+    /** Constructor. */
+    @Autowired
+    public SalesAnalyticsService(OrderRepository orderRepository, CoffeeRepository coffeeRepository) {
+        this.orderRepository = orderRepository;
+        this.coffeeRepository = coffeeRepository;
+    }
+
+    /** Полная перестройка агрегатов из БД. */
+    @PostConstruct
+    public void rebuild() {
+        List<Coffee> coffees = coffeeRepository.findAll();
+        List<OrderRepository.CoffeeOrderCount> counts = orderRepository.countOrdersByCoffee();
+
+        lock.writeLock().lock();
+        try {
+            sales.clear();
+            ranking.clear();
+            for (Coffee coffee : coffees) {
+                sales.put(coffee.getId(), new CoffeeSales(coffee.getId(), coffee.getName(), toCents(coffee.getPrice())));
+            }
+            for (OrderRepository.CoffeeOrderCount count : counts) {
+                CoffeeSales entry = sales.get(count.getCoffeeId());
+                if (entry != null) {
+                    entry.orderCount = count.getOrderCount();
+                }
+            }
+            sales.forEachValue(ranking::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Order created. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderCreated(OrderCreatedEvent event) {
+        apply(event.coffeeIds(), 1);
+    }
+
+    /** Order deleted. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderDeleted(OrderDeletedEvent event) {
+        apply(event.coffeeIds(), -1);
+    }
+
+    /** Coffees created or updated. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeesSaved(CoffeesSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (CoffeeDto coffee : event.coffees()) {
+                CoffeeSales entry = getOrCreate(coffee.getId());
+                entry.name = coffee.getName();
+                entry.priceCents = toCents(coffee.getPrice());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Coffees deleted. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCoffeesDeleted(CoffeesDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Long coffeeId : event.coffeeIds()) {
+                CoffeeSales entry = sales.remove(coffeeId);
+                if (entry != null) {
+                    ranking.remove(entry);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Top sellers, O(k). */
+    public List<CoffeeSalesDto> getTopCoffees(int limit) {
+        lock.readLock().lock();
+        try {
+            List<CoffeeSalesDto> result = new ArrayList<>(Math.min(limit, ranking.size()));
+            Iterator<CoffeeSales> iterator = ranking.iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next().toDto());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Sales of one coffee, O(1). */
+    public Optional<CoffeeSalesDto> getCoffeeSales(long coffeeId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(sales.get(coffeeId)).map(CoffeeSales::toDto);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(List<Long> coffeeIds, int delta) {
+        if (coffeeIds == null || coffeeIds.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long coffeeId : coffeeIds) {
+                CoffeeSales entry = getOrCreate(coffeeId);
+                // Ключ сортировки меняется — переставляем запись в рейтинге
+                ranking.remove(entry);
+                entry.orderCount = Math.max(0, entry.orderCount + delta);
+                ranking.add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private CoffeeSales getOrCreate(long coffeeId) {
+        CoffeeSales entry = sales.get(coffeeId);
+        if (entry == null) {
+            entry = new CoffeeSales(coffeeId, null, 0);
+            sales.put(coffeeId, entry);
+            ranking.add(entry);
+        }
+        return entry;
+    }
+
+    private static long toCents(double price) {
+        return Math.round(price * 100);
+    }
+
+    private static final class CoffeeSales {
+        private final long coffeeId;
+        private String name;
+        private long priceCents;
+        private long orderCount;
+
+        private CoffeeSales(long coffeeId, String name, long priceCents) {
+            this.coffeeId = coffeeId;
+            this.name = name;
+            this.priceCents = priceCents;
+        }
+
+        private CoffeeSalesDto toDto() {
+            return new CoffeeSalesDto(coffeeId, name, orderCount, orderCount * priceCents / 100.0);
+        }
+    }
+}
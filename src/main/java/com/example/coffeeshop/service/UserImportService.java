@@ -0,0 +1,352 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.dto.UserDto;
+import com.example.coffeeshop.dto.UserImportResultDto;
+import com.example.coffeeshop.event.UserSavedEvent;
+import com.example.coffeeshop.exception.PasswordHashingException;
+import com.example.coffeeshop.model.User;
+import com.example.coffeeshop.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Потоковый импорт пользователей из CSV или NDJSON. Строки обрабатываются пачками: проверка
+ * дублей одним запросом, хеширование паролей на пуле {@link PasswordHasher}, вставка пачками
+ * Hibernate в отдельной транзакции на каждую пачку.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    /** Сколько пользователей коммитится одной транзакцией. */
+    private static final int CHUNK_SIZE = 1000;
+
+    /** Формат входного потока. */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Constructor. */
+    @Autowired
+    public UserImportService(UserRepository userRepository, PasswordHasher passwordHasher, Validator validator,
+                             ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                             PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordHasher = passwordHasher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Читает пользователей из потока и пишет результат по каждой строке в writer (NDJSON)
+     * сразу после коммита пачки.
+     */
+    public void importUsers(InputStream input, Format format, Writer writer) throws IOException {
+        if (format == Format.CSV) {
+            importCsv(input, writer);
+        } else {
+            importNdjson(input, writer);
+        }
+        writer.flush();
+    }
+
+    private void importCsv(InputStream input, Writer writer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        int nameColumn = column(columns, "name");
+        int phoneColumn = column(columns, "phonenumber", "phone_number", "phone");
+        int passwordColumn = column(columns, "password", "passwordhash");
+
+        Set<String> seenPhones = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = parseCsvLine(line);
+            if (fields == null || fields.size() != names.size()) {
+                chunk.add(new ImportRow(index, null, "Некорректная строка CSV"));
+            } else {
+                UserDto user = new UserDto();
+                user.setName(fields.get(nameColumn));
+                user.setPhoneNumber(fields.get(phoneColumn));
+                user.setPasswordHash(fields.get(passwordColumn));
+                chunk.add(new ImportRow(index, user, null));
+            }
+            index++;
+            if (chunk.size() == CHUNK_SIZE) {
+                writeChunk(chunk, seenPhones, writer);
+            }
+        }
+        writeChunk(chunk, seenPhones, writer);
+    }
+
+    private void importNdjson(InputStream input, Writer writer) throws IOException {
+        Set<String> seenPhones = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        int index = 0;
+
+        try (MappingIterator<UserDto> iterator = objectMapper.readerFor(UserDto.class).readValues(input)) {
+            while (true) {
+                UserDto user;
+                try {
+                    if (!iterator.hasNextValue()) {
+                        break;
+                    }
+                    user = iterator.nextValue();
+                } catch (JsonProcessingException e) {
+                    // После синтаксической ошибки позиция в потоке не определена — дальше не читаем
+                    writeChunk(chunk, seenPhones, writer);
+                    writeResult(writer, new UserImportResultDto(index, null, UserImportResultDto.Status.INVALID,
+                            null, "Некорректный JSON: " + e.getOriginalMessage()));
+                    return;
+                }
+                chunk.add(new ImportRow(index++, user, null));
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, seenPhones, writer);
+                }
+            }
+        }
+        writeChunk(chunk, seenPhones, writer);
+    }
+
+    private void writeChunk(List<ImportRow> chunk, Set<String> seenPhones, Writer writer) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        for (UserImportResultDto result : importChunk(chunk, seenPhones)) {
+            writeResult(writer, result);
+        }
+        writer.flush();
+        chunk.clear();
+    }
+
+    private void writeResult(Writer writer, UserImportResultDto result) throws IOException {
+        writer.write(objectMapper.writeValueAsString(result));
+        writer.write('\n');
+    }
+
+    private List<UserImportResultDto> importChunk(List<ImportRow> rows, Set<String> seenPhones) {
+        UserImportResultDto[] results = new UserImportResultDto[rows.size()];
+        List<Integer> candidates = new ArrayList<>();
+
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            String error = row.error() != null ? row.error() : validate(row.user());
+            if (error != null) {
+                results[i] = new UserImportResultDto(row.index(), row.user() == null ? null
+                        : row.user().getPhoneNumber(), UserImportResultDto.Status.INVALID, null, error);
+            } else if (!seenPhones.add(row.user().getPhoneNumber())) {
+                results[i] = new UserImportResultDto(row.index(), row.user().getPhoneNumber(),
+                        UserImportResultDto.Status.DUPLICATE, null, "Номер телефона повторяется в запросе");
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return List.of(results);
+        }
+
+        Set<String> existingPhones = new HashSet<>(userRepository.findExistingPhoneNumbers(
+                candidates.stream().map(i -> rows.get(i).user().getPhoneNumber()).toList()));
+        List<Integer> toInsert = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            ImportRow row = rows.get(i);
+            if (existingPhones.contains(row.user().getPhoneNumber())) {
+                results[i] = new UserImportResultDto(row.index(), row.user().getPhoneNumber(),
+                        UserImportResultDto.Status.DUPLICATE, null, "Пользователь с таким номером уже существует");
+            } else {
+                toInsert.add(i);
+            }
+        }
+
+        // Хеширование — основная нагрузка импорта, делаем его до открытия транзакции
+        List<UserDto> dtos = toInsert.stream().map(i -> rows.get(i).user()).toList();
+        List<String> hashes = hashPasswords(dtos);
+        List<User> users = new ArrayList<>(toInsert.size());
+        List<Integer> inserted = new ArrayList<>(toInsert.size());
+        for (int j = 0; j < toInsert.size(); j++) {
+            int i = toInsert.get(j);
+            if (hashes.get(j) == null) {
+                results[i] = new UserImportResultDto(rows.get(i).index(), dtos.get(j).getPhoneNumber(),
+                        UserImportResultDto.Status.FAILED, null, "Не удалось захешировать пароль");
+            } else {
+                users.add(newUser(dtos.get(j), hashes.get(j)));
+                inserted.add(i);
+            }
+        }
+
+        try {
+            insert(users);
+            for (int j = 0; j < users.size(); j++) {
+                int i = inserted.get(j);
+                results[i] = new UserImportResultDto(rows.get(i).index(), users.get(j).getPhoneNumber(),
+                        UserImportResultDto.Status.CREATED, users.get(j).getId(), null);
+            }
+        } catch (DataAccessException chunkError) {
+            // Номер мог появиться в базе после проверки дублей — повторяем пачку по одному
+            log.warn("Import chunk of {} users failed ({}), retrying one by one", users.size(),
+                    chunkError.getMessage());
+            for (int j = 0; j < users.size(); j++) {
+                int i = inserted.get(j);
+                // Сущности из откатившейся транзакции уже с ID — для повтора нужны новые
+                results[i] = insertOne(rows.get(i).index(), newUser(rows.get(i).user(), users.get(j).getPassword()));
+            }
+        }
+        return List.of(results);
+    }
+
+    /** Хеши паролей; если пул не справился, хешируем по одному, а на место сбойных ставим null. */
+    private List<String> hashPasswords(List<UserDto> dtos) {
+        try {
+            return passwordHasher.hashAll(dtos.stream().map(UserDto::getPasswordHash).toList());
+        } catch (PasswordHashingException poolError) {
+            log.warn("Bulk password hashing failed ({}), hashing one by one", poolError.getMessage());
+            List<String> hashes = new ArrayList<>(dtos.size());
+            for (UserDto dto : dtos) {
+                try {
+                    hashes.add(passwordHasher.hash(dto.getPasswordHash()));
+                } catch (RuntimeException e) {
+                    hashes.add(null);
+                }
+            }
+            return hashes;
+        }
+    }
+
+    private void insert(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.saveAll(users);
+            userRepository.flush();
+            for (User user : users) {
+                eventPublisher.publishEvent(new UserSavedEvent(user.getId(), null, user.getPhoneNumber()));
+            }
+        });
+    }
+
+    private UserImportResultDto insertOne(int index, User user) {
+        try {
+            insert(List.of(user));
+            return new UserImportResultDto(index, user.getPhoneNumber(), UserImportResultDto.Status.CREATED,
+                    user.getId(), null);
+        } catch (DataIntegrityViolationException e) {
+            return new UserImportResultDto(index, user.getPhoneNumber(), UserImportResultDto.Status.DUPLICATE,
+                    null, "Пользователь с таким номером уже существует");
+        } catch (DataAccessException e) {
+            return new UserImportResultDto(index, user.getPhoneNumber(), UserImportResultDto.Status.FAILED,
+                    null, "Не удалось сохранить пользователя");
+        }
+    }
+
+    private static User newUser(UserDto dto, String passwordHash) {
+        User user = new User();
+        user.setName(dto.getName());
+        user.setPhoneNumber(dto.getPhoneNumber());
+        user.setPassword(passwordHash);
+        return user;
+    }
+
+    private String validate(UserDto user) {
+        if (user == null) {
+            return "Пустая строка";
+        }
+        Set<ConstraintViolation<UserDto>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    private static int column(Map<String, Integer> columns, String... aliases) {
+        for (String alias : aliases) {
+            Integer column = columns.get(alias);
+            if (column != null) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("В заголовке CSV нет колонки " + aliases[0]);
+    }
+
+    /** Разбор строки CSV с кавычками по RFC 4180; null, если кавычка не закрыта. */
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record ImportRow(int index, UserDto user, String error) {
+    }
+}
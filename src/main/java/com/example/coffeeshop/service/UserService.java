@@ -1,43 +1,85 @@
 package com.example.coffeeshop.service;
 
 import com.example.coffeeshop.dto.*;
-import com.example.coffeeshop.exception.PasswordHashingException;
+import com.example.coffeeshop.event.OrderDeletedEvent;
+import com.example.coffeeshop.event.UserSavedEvent;
+import com.example.coffeeshop.event.UsersDeletedEvent;
 import com.example.coffeeshop.exception.UserUpdateException;
 import com.example.coffeeshop.mapper.UserMapper;
-import com.example.coffeeshop.model.Coffee;
 import com.example.coffeeshop.model.User;
 import com.example.coffeeshop.repository.CoffeeRepository;
+import com.example.coffeeshop.repository.FavoriteCoffeeRepository;
+import com.example.coffeeshop.repository.OrderRepository;
 import com.example.coffeeshop.repository.UserRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Limit;
 import org.springframework.transaction.annotation.Transactional;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /** Service. */
 @Service
+@Slf4j
 public class UserService {
 
+    /** Ограничение на размер IN-списка при массовом удалении. */
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final CoffeeRepository coffeeRepository;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FavoriteCoffeeRepository favoriteCoffeeRepository;
+    private final PasswordHasher passwordHasher;
 
     /** Constructor. */
     @Autowired
-    public UserService(UserRepository userRepository, UserMapper userMapper, CoffeeRepository coffeeRepository) {
+    public UserService(UserRepository userRepository, UserMapper userMapper, CoffeeRepository coffeeRepository,
+                       OrderRepository orderRepository, ApplicationEventPublisher eventPublisher,
+                       FavoriteCoffeeRepository favoriteCoffeeRepository, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
         this.coffeeRepository = coffeeRepository;
+        this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
+        this.favoriteCoffeeRepository = favoriteCoffeeRepository;
+        this.passwordHasher = passwordHasher;
     }
 
-    /** Get all users. */
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(userMapper::toDto)
-                .toList();
+    /** Get users summary page. */
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserSummaryDto> getUserSummariesPage(Long after, int limit) {
+        // Берём на одну запись больше, чтобы понять, есть ли следующая страница
+        List<UserSummaryDto> users = userRepository.findSummariesAfter(after == null ? 0L : after,
+                Limit.of(limit + 1));
+        boolean hasNext = users.size() > limit;
+        List<UserSummaryDto> page = hasNext ? users.subList(0, limit) : users;
+        Long nextCursor = hasNext ? page.get(page.size() - 1).getId() : null;
+        return new CursorPageDto<>(page, nextCursor);
+    }
+
+    /** Get users page with the requested relations. */
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserDto> getUsersPage(Long after, int limit, boolean withOrders, boolean withFavorites) {
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(after == null ? 0L : after,
+                Limit.of(limit + 1));
+        boolean hasNext = users.size() > limit;
+        List<User> page = hasNext ? users.subList(0, limit) : users;
+        Long nextCursor = hasNext ? page.get(page.size() - 1).getId() : null;
+        // Коллекции догружаются пачками по hibernate.default_batch_fetch_size, а не по одной на пользователя
+        return new CursorPageDto<>(page.stream().map(user -> userMapper.toDto(user, withOrders, withFavorites))
+                .toList(), nextCursor);
     }
 
     /** Get by id. */
@@ -47,7 +89,7 @@ public class UserService {
 
     /** Create User. */
     @Transactional
-    public UserDto createUser(UserDto userDto) throws NoSuchAlgorithmException {
+    public UserDto createUser(UserDto userDto) {
         // Проверка на пустое имя или номер телефона
         if (userDto.getPhoneNumber() == null || userDto.getPhoneNumber().isBlank()) {
             throw new IllegalArgumentException("Номер телефона не может быть пустым.");
@@ -57,7 +99,7 @@ public class UserService {
         }
 
         // Хеширование пароля
-        String hashedPassword = hashPassword(userDto.getPasswordHash());
+        String hashedPassword = passwordHasher.hash(userDto.getPasswordHash());
 
         // Преобразование из DTO в Entity
         User user = userMapper.toEntity(userDto);
@@ -65,6 +107,7 @@ public class UserService {
 
         // Сохранение пользователя в БД
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserSavedEvent(savedUser.getId(), null, savedUser.getPhoneNumber()));
 
         // Возвращение DTO с данными созданного пользователя
         return userMapper.toDto(savedUser);
@@ -76,6 +119,7 @@ public class UserService {
     public UserDto updateUser(Long id, UserUpdateDto userUpdateDto) {
         return userRepository.findById(id)
                 .map(user -> {
+                    String previousPhoneNumber = user.getPhoneNumber();
                     if (userUpdateDto.getPhoneNumber() != null) {
                         if (userUpdateDto.getPhoneNumber().isBlank()) {
                             throw new UserUpdateException("Номер телефона не может быть пустым.");
@@ -89,13 +133,12 @@ public class UserService {
                         user.setName(userUpdateDto.getName());
                     }
                     if (userUpdateDto.getPasswordHash() != null) {
-                        try {
-                            user.setPassword(hashPassword(userUpdateDto.getPasswordHash()));
-                        } catch (NoSuchAlgorithmException e) {
-                            throw new PasswordHashingException("Ошибка хеширования пароля", e);
-                        }
+                        user.setPassword(passwordHasher.hash(userUpdateDto.getPasswordHash()));
                     }
-                    return userMapper.toDto(userRepository.save(user));
+                    User savedUser = userRepository.save(user);
+                    eventPublisher.publishEvent(new UserSavedEvent(savedUser.getId(), previousPhoneNumber,
+                            savedUser.getPhoneNumber()));
+                    return userMapper.toDto(savedUser);
                 })
                 .orElseThrow(() -> new UserUpdateException("Пользователь с ID " + id + " не найден."));
     }
@@ -103,94 +146,149 @@ public class UserService {
     /** Delete user. */
     @Transactional
     public boolean deleteUser(Long id) {
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
-            return true;
+        return !deleteUsers(List.of(id)).getUserIds().isEmpty();
+    }
+
+    /** Delete users by ids; несуществующие ID пропускаются. */
+    @Transactional
+    public UserDeletionReportDto deleteUsers(Collection<Long> ids) {
+        long started = System.nanoTime();
+        List<Long> requested = List.copyOf(new LinkedHashSet<>(ids));
+        List<UserRepository.UserPhone> users = new ArrayList<>(requested.size());
+        for (int from = 0; from < requested.size(); from += DELETE_CHUNK_SIZE) {
+            users.addAll(userRepository.findPhonesByIdIn(
+                    requested.subList(from, Math.min(from + DELETE_CHUNK_SIZE, requested.size()))));
+        }
+        return deleteResolved(users, started);
+    }
+
+    /** Delete users whose phone number starts with the prefix. */
+    @Transactional
+    public UserDeletionReportDto deleteUsersByPhonePrefix(String phonePrefix) {
+        if (phonePrefix == null || phonePrefix.isBlank()) {
+            throw new IllegalArgumentException("Префикс номера телефона не может быть пустым.");
+        }
+        long started = System.nanoTime();
+        return deleteResolved(userRepository.findByPhoneNumberStartingWithOrderById(phonePrefix), started);
+    }
+
+    private UserDeletionReportDto deleteResolved(List<UserRepository.UserPhone> users, long started) {
+        List<Long> userIds = users.stream().map(UserRepository.UserPhone::getId).toList();
+        List<String> phoneNumbers = users.stream().map(UserRepository.UserPhone::getPhoneNumber).toList();
+
+        // Состав заказов нужен аналитике и рекомендациям, поэтому читаем его до удаления связей
+        Map<Long, OrderDeletedEvent> orders = new LinkedHashMap<>();
+        for (int from = 0; from < userIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, userIds.size()));
+            for (OrderRepository.OrderCoffeeRow row : orderRepository.findCoffeeRowsByUserIds(chunk)) {
+                OrderDeletedEvent order = orders.computeIfAbsent(row.getOrderId(),
+                        orderId -> new OrderDeletedEvent(orderId, row.getUserId(), new ArrayList<>()));
+                if (row.getCoffeeId() != null) {
+                    order.coffeeIds().add(row.getCoffeeId());
+                }
+            }
+        }
+        long resolved = System.nanoTime();
+
+        int orderCoffeeLinks = 0;
+        int deletedOrders = 0;
+        int favorites = 0;
+        for (int from = 0; from < userIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, userIds.size()));
+            orderCoffeeLinks += orderRepository.deleteCoffeeLinksByUserIds(chunk);
+            deletedOrders += orderRepository.deleteAllByUserIdIn(chunk);
+            favorites += favoriteCoffeeRepository.deleteAllByUserIdIn(chunk);
+            userRepository.deleteAllByIdIn(chunk);
+        }
+        long deleted = System.nanoTime();
+
+        orders.values().forEach(eventPublisher::publishEvent);
+        if (!userIds.isEmpty()) {
+            eventPublisher.publishEvent(new UsersDeletedEvent(userIds, phoneNumbers));
         }
-        return false; // Пользователь с таким ID не найден
+
+        UserDeletionReportDto report = new UserDeletionReportDto(userIds, deletedOrders, orderCoffeeLinks, favorites,
+                TimeUnit.NANOSECONDS.toMillis(resolved - started), TimeUnit.NANOSECONDS.toMillis(deleted - resolved),
+                TimeUnit.NANOSECONDS.toMillis(deleted - started));
+        log.info("Deleted {} users, {} orders, {} favorites in {} ms", userIds.size(), deletedOrders, favorites,
+                report.getTotalMillis());
+        return report;
     }
 
     /** Get all fav. */
     public List<Long> getAllFavoritesCoffees(Long userId) {
-        return userRepository.findById(userId)
-                .map(user -> user.getFavoriteCoffees().stream().map(Coffee::getId).toList())
-                .orElse(List.of());
+        return favoriteCoffeeRepository.findCoffeeIdsByUserId(userId);
     }
 
     /** Add to fav. */
     @Transactional
     public void addCoffeeToFavorites(Long userId, Long coffeeId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        Optional<Coffee> coffeeOpt = coffeeRepository.findById(coffeeId);
-
-        if (userOpt.isEmpty() || coffeeOpt.isEmpty()) {
-            throw new IllegalArgumentException("Пользователь или кофе не найдены.");
-        }
-
-        User user = userOpt.get();
-        Coffee coffee = coffeeOpt.get();
-
-        if (!user.getFavoriteCoffees().contains(coffee)) {
-            user.getFavoriteCoffees().add(coffee);
-            userRepository.save(user);
+        // Повторное добавление — не ошибка; 0 строк без конфликта значит, что нет пользователя или кофе
+        if (favoriteCoffeeRepository.insertIfAbsent(userId, List.of(coffeeId)) == 0) {
+            requireUserAndCoffee(userId, coffeeId);
         }
     }
 
     /** Delete from fav. */
     @Transactional
     public void removeCoffeeFromFavorites(Long userId, Long coffeeId) {
-        Optional<User> userOpt = userRepository.findById(userId);
-        Optional<Coffee> coffeeOpt = coffeeRepository.findById(coffeeId);
-
-        if (userOpt.isEmpty() || coffeeOpt.isEmpty()) {
-            throw new IllegalArgumentException("Пользователь или кофе не найдены.");
+        if (favoriteCoffeeRepository.delete(userId, List.of(coffeeId)) == 0) {
+            requireUserAndCoffee(userId, coffeeId);
         }
+    }
 
-        User user = userOpt.get();
-        Coffee coffee = coffeeOpt.get();
-
-        if (user.getFavoriteCoffees().contains(coffee)) {
-            user.getFavoriteCoffees().remove(coffee);
-            userRepository.save(user);
+    /** Replace favorites with the full set or apply add/remove diff; returns resulting ids. */
+    @Transactional
+    public List<Long> updateFavorites(Long userId, FavoritesUpdateDto update) {
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("Пользователь с ID " + userId + " не найден.");
         }
+        if (update.getCoffeeIds() != null) {
+            if (update.getAdd() != null || update.getRemove() != null) {
+                throw new IllegalArgumentException("Передайте либо coffeeIds, либо add/remove.");
+            }
+            if (update.getCoffeeIds().isEmpty()) {
+                favoriteCoffeeRepository.deleteAll(userId);
+            } else {
+                favoriteCoffeeRepository.deleteAllExcept(userId, update.getCoffeeIds());
+                favoriteCoffeeRepository.insertIfAbsent(userId, update.getCoffeeIds());
+            }
+        } else {
+            if (update.getRemove() != null && !update.getRemove().isEmpty()) {
+                favoriteCoffeeRepository.delete(userId, update.getRemove());
+            }
+            if (update.getAdd() != null && !update.getAdd().isEmpty()) {
+                favoriteCoffeeRepository.insertIfAbsent(userId, update.getAdd());
+            }
+        }
+        return favoriteCoffeeRepository.findCoffeeIdsByUserId(userId);
     }
 
-    /** Hash password. */
-    public String hashPassword(String password) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256"); // используем SHA-256
-        byte[] hashBytes = digest.digest(password.getBytes());
-        StringBuilder hexString = new StringBuilder();
-        for (byte b : hashBytes) {
-            hexString.append(String.format("%02x", b)); // преобразуем байты в строку в шестнадцатеричном формате
+    private void requireUserAndCoffee(Long userId, Long coffeeId) {
+        if (!userRepository.existsById(userId) || !coffeeRepository.existsById(coffeeId)) {
+            throw new IllegalArgumentException("Пользователь или кофе не найдены.");
         }
-        return hexString.toString();
     }
 
-
     @Transactional(readOnly = true)
-    public UserWithRelationsDto getUserWithRelations(Long id) {
-        User user = userRepository.findWithRelationsById(id)
+    public UserWithRelationsDto getUserWithRelations(Long id, Long ordersAfter, int ordersLimit) {
+        // Проекции вместо загрузки сущностей: без снимков для dirty checking и прокси.
+        // Каждая коллекция — отдельный запрос, поэтому строки не перемножаются, а заказы идут страницами
+        DisplayUserDto user = userRepository.findDisplayById(id)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with id: " + id));
 
+        List<OrderInfoDto> orders = orderRepository.findInfoByUserId(id, ordersAfter == null ? 0L : ordersAfter,
+                Limit.of(ordersLimit + 1));
+        boolean hasNext = orders.size() > ordersLimit;
+        List<OrderInfoDto> page = hasNext ? orders.subList(0, ordersLimit) : orders;
+
         return new UserWithRelationsDto(
                 user.getId(),
                 user.getName(),
                 user.getPhoneNumber(),
-                user.getFavoriteCoffees().stream()
-                        .map(coffee -> new CoffeeInfoDto(
-                                coffee.getId(),
-                                coffee.getName(),
-                                coffee.getType(),
-                                coffee.getPrice()
-                        ))
-                        .toList(),
-                user.getOrders().stream()
-                        .map(order -> new OrderInfoDto(
-                                order.getId(),
-                                order.getUser().getName(),
-                                order.getNotes()
-                        ))
-                        .toList()
+                userRepository.findFavoriteCoffeeInfoByUserId(id),
+                page,
+                hasNext ? page.get(page.size() - 1).getId() : null
         );
     }
 }
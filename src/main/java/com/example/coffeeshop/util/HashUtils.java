@@ -0,0 +1,25 @@
+package com.example.coffeeshop.util;
+
+/** Общие функции для примитивных hash map. */
+final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /** Перемешивание битов ключа (фибоначчиево хеширование). */
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h ^= h >>> 16;
+        return (int) h;
+    }
+
+    /** Размер таблицы — степень двойки, вмещающая expectedSize при заданной загрузке. */
+    static int tableSize(int expectedSize, float loadFactor) {
+        long required = Math.max(2, (long) Math.ceil(expectedSize / loadFactor) + 1);
+        if (required > (1 << 30)) {
+            throw new IllegalArgumentException("Map too large: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+}
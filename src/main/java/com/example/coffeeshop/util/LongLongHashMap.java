@@ -0,0 +1,233 @@
+package com.example.coffeeshop.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map с примитивными ключами и значениями long (открытая адресация, линейное пробирование).
+ * Не потокобезопасна — синхронизация на стороне вызывающего кода.
+ */
+public class LongLongHashMap {
+
+    private static final long FREE_KEY = 0L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private boolean hasFreeKey;
+    private long freeKeyValue;
+
+    /** Constructor. */
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    /** Constructor. */
+    public LongLongHashMap(int expectedSize) {
+        allocate(HashUtils.tableSize(expectedSize, LOAD_FACTOR));
+    }
+
+    /** Value for the key or defaultValue. */
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        int index = HashUtils.mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == FREE_KEY) {
+                return defaultValue;
+            }
+            if (current == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** Whether the key is present. */
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey;
+        }
+        int index = HashUtils.mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == FREE_KEY) {
+                return false;
+            }
+            if (current == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** Put value. */
+    public void put(long key, long value) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                size++;
+            }
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+        int index = HashUtils.mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == FREE_KEY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size >= threshold) {
+                    rehash(keys.length * 2);
+                }
+                return;
+            }
+            if (current == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** Adds delta to the value (missing key counts as 0), returns the new value. */
+    public long addTo(long key, long delta) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                size++;
+                hasFreeKey = true;
+            }
+            freeKeyValue += delta;
+            return freeKeyValue;
+        }
+        int index = HashUtils.mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == FREE_KEY) {
+                keys[index] = key;
+                values[index] = delta;
+                if (++size >= threshold) {
+                    rehash(keys.length * 2);
+                }
+                return delta;
+            }
+            if (current == key) {
+                values[index] += delta;
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** Remove key, returns whether it was present. */
+    public boolean remove(long key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = false;
+            freeKeyValue = 0;
+            size--;
+            return true;
+        }
+        int index = HashUtils.mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == FREE_KEY) {
+                return false;
+            }
+            if (current == key) {
+                shiftKeys(index);
+                size--;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** Number of entries. */
+    public int size() {
+        return size;
+    }
+
+    /** Number of slots in the table. */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /** Remove all entries. */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, 0L);
+        hasFreeKey = false;
+        freeKeyValue = 0;
+        size = 0;
+    }
+
+    /** Iterate over all entries. */
+    public void forEach(LongLongConsumer action) {
+        if (hasFreeKey) {
+            action.accept(FREE_KEY, freeKeyValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /** Entry consumer. */
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        /** Accept entry. */
+        void accept(long key, long value);
+    }
+
+    // Backward-shift удаление, как в LongObjectHashMap
+    private void shiftKeys(int index) {
+        int last;
+        int slot;
+        while (true) {
+            last = index;
+            index = (index + 1) & mask;
+            while (true) {
+                long current = keys[index];
+                if (current == FREE_KEY) {
+                    keys[last] = FREE_KEY;
+                    values[last] = 0;
+                    return;
+                }
+                slot = HashUtils.mix(current) & mask;
+                if (last <= index ? (last >= slot || slot > index) : (last >= slot && slot > index)) {
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[last] = keys[index];
+            values[last] = values[index];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        size = hasFreeKey ? 1 : 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
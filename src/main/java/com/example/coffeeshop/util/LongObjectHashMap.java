@@ -0,0 +1,205 @@
+package com.example.coffeeshop.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hash map с примитивными ключами long (открытая адресация, линейное пробирование).
+ * Не потокобезопасна — синхронизация на стороне вызывающего кода.
+ */
+public class LongObjectHashMap<V> {
+
+    private static final long FREE_KEY = 0L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private boolean hasFreeKey;
+    private V freeKeyValue;
+
+    /** Constructor. */
+    public LongObjectHashMap() {
+        this(16);
+    }
+
+    /** Constructor. */
+    public LongObjectHashMap(int expectedSize) {
+        int capacity = HashUtils.tableSize(expectedSize, LOAD_FACTOR);
+        allocate(capacity);
+    }
+
+    /** Get value or null. */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == FREE_KEY) {
+            return hasFreeKey ? freeKeyValue : null;
+        }
+        int index = HashUtils.mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == FREE_KEY) {
+                return null;
+            }
+            if (current == key) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** Put value, returns previous or null. */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == FREE_KEY) {
+            V previous = hasFreeKey ? freeKeyValue : null;
+            if (!hasFreeKey) {
+                size++;
+            }
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return previous;
+        }
+        int index = HashUtils.mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == FREE_KEY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size >= threshold) {
+                    rehash(keys.length * 2);
+                }
+                return null;
+            }
+            if (current == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** Remove key, returns previous value or null. */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) {
+                return null;
+            }
+            V previous = freeKeyValue;
+            hasFreeKey = false;
+            freeKeyValue = null;
+            size--;
+            return previous;
+        }
+        int index = HashUtils.mix(key) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == FREE_KEY) {
+                return null;
+            }
+            if (current == key) {
+                V previous = (V) values[index];
+                shiftKeys(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /** Number of entries. */
+    public int size() {
+        return size;
+    }
+
+    /** Remove all entries. */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, null);
+        hasFreeKey = false;
+        freeKeyValue = null;
+        size = 0;
+    }
+
+    /** Iterate over all values. */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<V> action) {
+        if (hasFreeKey) {
+            action.accept(freeKeyValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                action.accept((V) values[i]);
+            }
+        }
+    }
+
+    /** Iterate over all entries. */
+    @SuppressWarnings("unchecked")
+    public void forEach(LongObjectConsumer<V> action) {
+        if (hasFreeKey) {
+            action.accept(FREE_KEY, freeKeyValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /** Entry consumer. */
+    @FunctionalInterface
+    public interface LongObjectConsumer<V> {
+        /** Accept entry. */
+        void accept(long key, V value);
+    }
+
+    // Backward-shift удаление: сдвигаем хвост кластера, чтобы не оставлять "надгробий"
+    private void shiftKeys(int index) {
+        int last;
+        int slot;
+        while (true) {
+            last = index;
+            index = (index + 1) & mask;
+            while (true) {
+                long current = keys[index];
+                if (current == FREE_KEY) {
+                    keys[last] = FREE_KEY;
+                    values[last] = null;
+                    return;
+                }
+                slot = HashUtils.mix(current) & mask;
+                if (last <= index ? (last >= slot || slot > index) : (last >= slot && slot > index)) {
+                    break;
+                }
+                index = (index + 1) & mask;
+            }
+            keys[last] = keys[index];
+            values[last] = values[index];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        size = hasFreeKey ? 1 : 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
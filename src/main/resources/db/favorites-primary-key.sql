@@ -0,0 +1,17 @@
+-- Первичный ключ (user_id, coffee_id) для user_favorite_coffee.
+-- Выполнить один раз на существующей базе: ddl-auto=update не добавляет ключ к уже созданной таблице.
+--   psql -v ON_ERROR_STOP=1 -f src/main/resources/db/favorites-primary-key.sql
+
+BEGIN;
+
+-- Убираем дубли, которые могли появиться из-за одновременных добавлений
+DELETE FROM user_favorite_coffee a
+    USING user_favorite_coffee b
+    WHERE a.ctid < b.ctid
+      AND a.user_id = b.user_id
+      AND a.coffee_id = b.coffee_id;
+
+ALTER TABLE user_favorite_coffee
+    ADD CONSTRAINT user_favorite_coffee_pkey PRIMARY KEY (user_id, coffee_id);
+
+COMMIT;
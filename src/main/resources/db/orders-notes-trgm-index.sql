@@ -0,0 +1,9 @@
+-- Индекс для поиска заказов по слову в комментарии (lower(notes) LIKE '%слово%').
+-- Шаблон с % в начале b-tree не обслуживает, нужен триграммный GIN-индекс из pg_trgm.
+-- ddl-auto=update такие индексы не создаёт, поэтому выполнить один раз на каждой базе:
+--   psql -v ON_ERROR_STOP=1 -f src/main/resources/db/orders-notes-trgm-index.sql
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- CONCURRENTLY не блокирует запись в orders, но не работает внутри транзакции
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_notes_trgm ON orders USING gin (lower(notes) gin_trgm_ops);
@@ -0,0 +1,25 @@
+-- Перевод id с IDENTITY на последовательности с шагом 50 (pooled-оптимизатор Hibernate).
+-- Выполнить один раз на существующей базе до запуска версии с @SequenceGenerator:
+--   psql -v ON_ERROR_STOP=1 -f src/main/resources/db/pooled-sequences.sql
+-- Шаг последовательности обязан совпадать с allocationSize в сущностях.
+-- После setval(seq, max(id)) следующий nextval вернёт max(id) + 50, и Hibernate выдаст
+-- ID из диапазона max(id) + 1 .. max(id) + 50, не пересекаясь с существующими строками.
+
+BEGIN;
+
+ALTER TABLE coffees ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE coffees ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS coffees_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('coffees_seq', GREATEST((SELECT MAX(id) FROM coffees), 1));
+
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', GREATEST((SELECT MAX(id) FROM users), 1));
+
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE orders ALTER COLUMN id DROP DEFAULT;
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('orders_seq', GREATEST((SELECT MAX(id) FROM orders), 1));
+
+COMMIT;
@@ -0,0 +1,12 @@
+-- Индекс для поиска заказов по префиксу имени пользователя (LIKE 'префикс%').
+-- При локали базы, отличной от C (например, en_US.utf8), обычный b-tree idx_users_name для LIKE
+-- не используется, нужен индекс с классом операторов varchar_pattern_ops.
+-- ddl-auto=update классы операторов не задаёт, поэтому выполнить один раз на каждой базе:
+--   psql -v ON_ERROR_STOP=1 -f src/main/resources/db/users-name-pattern-index.sql
+
+-- CONCURRENTLY не блокирует запись в users, но не работает внутри транзакции
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_name_pattern ON users (name varchar_pattern_ops);
+
+-- Обычный idx_users_name больше не объявлен в User: равенство и сортировку по имени никто не
+-- запрашивает, а префиксный поиск обслуживает индекс выше
+DROP INDEX CONCURRENTLY IF EXISTS idx_users_name;
@@ -0,0 +1,94 @@
+package com.example.coffeeshop.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTests {
+
+	private static final int MAXIMUM_WEIGHT = 100;
+	private static final int CHURN = 20_000;
+
+	@Test
+	void keepsWeightWithinMaximum() {
+		BoundedCache<Integer, String> cache = new BoundedCache<>(MAXIMUM_WEIGHT, Duration.ofMinutes(10), v -> 1);
+		for (int i = 0; i < CHURN; i++) {
+			cache.put(i, "value " + i);
+		}
+
+		CacheStats stats = cache.stats();
+		assertTrue(stats.weight() <= MAXIMUM_WEIGHT);
+		assertTrue(stats.size() <= MAXIMUM_WEIGHT);
+		assertEquals(CHURN - stats.size(), stats.evictionCount());
+	}
+
+	@Test
+	void evictedValuesAreNotRetainedWithTtl() {
+		BoundedCache<Integer, byte[]> cache = new BoundedCache<>(MAXIMUM_WEIGHT, Duration.ofMinutes(10), v -> 1);
+		assertRetainedWithinMaximum(cache, false);
+	}
+
+	@Test
+	void evictedValuesAreNotRetainedWithoutTtl() {
+		BoundedCache<Integer, byte[]> cache = new BoundedCache<>(MAXIMUM_WEIGHT, Duration.ZERO, v -> 1);
+		assertRetainedWithinMaximum(cache, false);
+	}
+
+	@Test
+	void invalidatedValuesAreNotRetained() {
+		BoundedCache<Integer, byte[]> cache = new BoundedCache<>(MAXIMUM_WEIGHT, Duration.ofMinutes(10), v -> 1);
+		assertRetainedWithinMaximum(cache, true);
+		assertEquals(0, cache.stats().size());
+	}
+
+	@Test
+	void expiresEntriesAfterTtl() throws InterruptedException {
+		BoundedCache<String, String> cache = new BoundedCache<>(MAXIMUM_WEIGHT, Duration.ofMillis(20), v -> 1);
+		cache.put("a", "1");
+		assertEquals("1", cache.get("a"));
+
+		Thread.sleep(50);
+		assertNull(cache.get("a"));
+		cache.put("b", "2");
+		assertEquals(1, cache.stats().expirationCount());
+		assertEquals(1, cache.stats().size());
+	}
+
+	@Test
+	void oversizedValueReplacesPreviousEntry() {
+		BoundedCache<String, String> cache = new BoundedCache<>(MAXIMUM_WEIGHT, Duration.ofMinutes(10), String::length);
+		cache.put("a", "old");
+		cache.put("a", "x".repeat(MAXIMUM_WEIGHT + 1));
+
+		assertNull(cache.get("a"));
+		assertEquals(1, cache.stats().rejectedCount());
+		assertEquals(0, cache.stats().size());
+		assertEquals(0, cache.stats().weight());
+	}
+
+	/** Прокачивает через кэш CHURN значений и проверяет, что достижимыми остаются не больше MAXIMUM_WEIGHT. */
+	private static void assertRetainedWithinMaximum(BoundedCache<Integer, byte[]> cache, boolean invalidate) {
+		List<WeakReference<byte[]>> references = new ArrayList<>(CHURN);
+		for (int i = 0; i < CHURN; i++) {
+			byte[] value = new byte[64];
+			references.add(new WeakReference<>(value));
+			cache.put(i, value);
+			if (invalidate) {
+				cache.invalidate(i);
+			}
+		}
+
+		long retained = Long.MAX_VALUE;
+		for (int attempt = 0; attempt < 20 && retained > MAXIMUM_WEIGHT; attempt++) {
+			System.gc();
+			retained = references.stream().filter(reference -> reference.get() != null).count();
+		}
+		assertTrue(retained <= MAXIMUM_WEIGHT, "retained " + retained + " values");
+	}
+}
@@ -0,0 +1,119 @@
+package com.example.coffeeshop.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class FileRangeResponderTests {
+
+	/** Отдаётся участок файла [OFFSET, OFFSET + LENGTH) — "56789abcde". */
+	private static final long OFFSET = 5;
+	private static final long LENGTH = 10;
+	private static final long LAST_MODIFIED = 1_700_000_000_000L;
+	private static final String ETAG = "\"5-f\"";
+
+	@TempDir
+	private Path directory;
+
+	private Path file;
+	private MockHttpServletRequest request;
+	private MockHttpServletResponse response;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		file = Files.writeString(directory.resolve("application.log"), "0123456789abcdefghij", StandardCharsets.UTF_8);
+		request = new MockHttpServletRequest("GET", "/logs/2026-10-17");
+		response = new MockHttpServletResponse();
+	}
+
+	@Test
+	void sendsWholeSliceWithoutRange() throws IOException {
+		send();
+
+		assertEquals(HttpStatus.OK.value(), response.getStatus());
+		assertEquals("56789abcde", response.getContentAsString());
+		assertEquals(LENGTH, response.getContentLengthLong());
+		assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void sendsSingleRange() throws IOException {
+		request.addHeader(HttpHeaders.RANGE, "bytes=2-4");
+		send();
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatus());
+		assertEquals("bytes 2-4/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals("789", response.getContentAsString());
+		assertEquals(3, response.getContentLengthLong());
+	}
+
+	@Test
+	void sendsSuffixRange() throws IOException {
+		request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+		send();
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatus());
+		assertEquals("bytes 7-9/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals("cde", response.getContentAsString());
+	}
+
+	@Test
+	void rejectsUnsatisfiableRange() throws IOException {
+		request.addHeader(HttpHeaders.RANGE, "bytes=10-20");
+		send();
+
+		assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value(), response.getStatus());
+		assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals("", response.getContentAsString());
+	}
+
+	@Test
+	void appliesRangeWhenIfRangeMatches() throws IOException {
+		request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+		request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+		send();
+
+		assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatus());
+		assertEquals("56", response.getContentAsString());
+	}
+
+	@Test
+	void sendsWholeSliceWhenIfRangeDoesNotMatch() throws IOException {
+		request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+		request.addHeader(HttpHeaders.IF_RANGE, "\"0-a\"");
+		send();
+
+		assertWholeSlice();
+	}
+
+	@Test
+	void sendsWholeSliceWhenIfRangeIsWeak() throws IOException {
+		// Слабый ETag не годится для If-Range, даже если совпадает значение
+		request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+		request.addHeader(HttpHeaders.IF_RANGE, "W/" + ETAG);
+		send();
+
+		assertWholeSlice();
+	}
+
+	private void send() throws IOException {
+		FileRangeResponder.send(request, response, file, OFFSET, LENGTH, LAST_MODIFIED, ETAG, "logs-2026-10-17.log");
+	}
+
+	private void assertWholeSlice() throws IOException {
+		assertEquals(HttpStatus.OK.value(), response.getStatus());
+		assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+		assertEquals("56789abcde", response.getContentAsString());
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.coffeeshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.coffeeshop.dto.CreateOrderDto;
+import com.example.coffeeshop.model.Coffee;
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+class BulkInsertBatchingTests extends QueryStatisticsTestBase {
+
+	private static final int BATCH_SIZE = 50;
+	private static final int ORDER_COUNT = 1000;
+	private static final int USER_COUNT = 1000;
+
+	private static final AtomicInteger BATCH_EXECUTIONS = new AtomicInteger();
+	private static final AtomicInteger SINGLE_EXECUTIONS = new AtomicInteger();
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private UserImportService userImportService;
+
+	private Long userId;
+	private List<Long> coffeeIds;
+
+	@TestConfiguration
+	static class StatementCountingConfig {
+
+		/** Считает выполнения пачек и одиночных DML через JDBC. */
+		@Bean
+		static BeanPostProcessor statementCountingDataSource() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource
+							? proxy(DataSource.class, dataSource) : bean;
+				}
+			};
+		}
+
+		private static <T> T proxy(Class<T> type, T target) {
+			return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+					(instance, method, args) -> {
+						switch (method.getName()) {
+							case "executeBatch" -> BATCH_EXECUTIONS.incrementAndGet();
+							case "executeUpdate" -> SINGLE_EXECUTIONS.incrementAndGet();
+							default -> {
+							}
+						}
+						Object result;
+						try {
+							result = method.invoke(target, args);
+						} catch (InvocationTargetException e) {
+							throw e.getCause();
+						}
+						if (result instanceof Connection connection) {
+							return proxy(Connection.class, connection);
+						}
+						if (result instanceof PreparedStatement statement) {
+							return proxy(PreparedStatement.class, statement);
+						}
+						return result;
+					}));
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		coffeeIds = createCoffees("Batching coffee", 2).stream().map(Coffee::getId).toList();
+		userId = createUser("Batching", "+375000000012").getId();
+		startCounting();
+		BATCH_EXECUTIONS.set(0);
+		SINGLE_EXECUTIONS.set(0);
+	}
+
+	@Test
+	void bulkOrdersAreInsertedInBatches() {
+		List<CreateOrderDto> dtos = new ArrayList<>(ORDER_COUNT);
+		for (int i = 0; i < ORDER_COUNT; i++) {
+			CreateOrderDto dto = new CreateOrderDto();
+			dto.setUserId(userId);
+			dto.setCoffeesIds(coffeeIds);
+			dto.setNotes("bulk " + i);
+			dtos.add(dto);
+		}
+
+		assertEquals(ORDER_COUNT, orderService.createOrdersBulk(dtos).size());
+
+		// Заказы и по две связи с кофе на заказ — пачками по BATCH_SIZE, без одиночных вставок
+		int orderBatches = ORDER_COUNT / BATCH_SIZE;
+		int linkBatches = 2 * ORDER_COUNT / BATCH_SIZE;
+		assertEquals(orderBatches + linkBatches, BATCH_EXECUTIONS.get());
+		assertEquals(0, SINGLE_EXECUTIONS.get());
+		assertEquals(ORDER_COUNT, statistics.getEntityInsertCount());
+		// Пачки, выборки из последовательности (шаг 50) и две выборки пользователей и кофе
+		assertTrue(statistics.getPrepareStatementCount() <= 2L * (orderBatches + linkBatches) + 4,
+				"prepared " + statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void importedUsersAreInsertedInBatches() throws Exception {
+		StringBuilder csv = new StringBuilder("name,phoneNumber,password\n");
+		for (int i = 0; i < USER_COUNT; i++) {
+			csv.append("Imported ").append(i).append(',').append(String.format("+37529%07d", i)).append(",secret\n");
+		}
+		StringWriter results = new StringWriter();
+
+		userImportService.importUsers(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+				UserImportService.Format.CSV, results);
+
+		assertEquals(USER_COUNT, results.toString().split("\"CREATED\"").length - 1);
+		int userBatches = USER_COUNT / BATCH_SIZE;
+		assertEquals(userBatches, BATCH_EXECUTIONS.get());
+		assertEquals(0, SINGLE_EXECUTIONS.get());
+		assertEquals(USER_COUNT, statistics.getEntityInsertCount());
+		// Пачки, выборки из последовательности и одна проверка дублей на пачку импорта
+		assertTrue(statistics.getPrepareStatementCount() <= 2L * userBatches + 3,
+				"prepared " + statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.coffeeshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.coffeeshop.dto.CoffeeWithOrdersDto;
+import com.example.coffeeshop.dto.OrderWithDetailsDto;
+import com.example.coffeeshop.model.Coffee;
+import com.example.coffeeshop.model.User;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class DetailProjectionQueryTests extends QueryStatisticsTestBase {
+
+	private static final int ORDER_COUNT = 200;
+	private static final int COFFEE_COUNT = 3;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CoffeeService coffeeService;
+
+	private Long orderId;
+	private Long coffeeId;
+
+	@BeforeEach
+	void setUp() {
+		List<Coffee> coffees = createCoffees("Projection coffee", COFFEE_COUNT);
+		coffeeId = coffees.get(0).getId();
+		User user = createUser("Projection", "+375000000007");
+		orderId = createOrders(user, coffees, ORDER_COUNT).get(0).getId();
+		startCounting();
+	}
+
+	@Test
+	void loadsOrderDetailsWithProjectionsOnly() {
+		OrderWithDetailsDto details = orderService.getOrderWithDetails(orderId);
+
+		// Заказ с именем пользователя и его кофе — два запроса, ни одной сущности
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionLoadCount());
+		assertEquals("Projection", details.getUser());
+		assertEquals(COFFEE_COUNT, details.getCoffees().size());
+	}
+
+	@Test
+	void loadsCoffeeOrdersWithProjectionsOnly() {
+		CoffeeWithOrdersDto coffee = coffeeService.getCoffeeWithOrders(coffeeId);
+
+		// Число запросов не зависит от количества заказов
+		assertEquals(2, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionLoadCount());
+		assertEquals(ORDER_COUNT, coffee.getOrders().size());
+	}
+}
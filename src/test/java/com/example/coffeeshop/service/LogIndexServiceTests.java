@@ -0,0 +1,115 @@
+package com.example.coffeeshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogIndexServiceTests {
+
+	private static final LocalDate DAY = LocalDate.of(2026, 10, 17);
+	private static final LocalDate NEXT_DAY = DAY.plusDays(1);
+
+	@TempDir
+	private Path directory;
+
+	private Path logFile;
+	private LogIndexService indexService;
+
+	@BeforeEach
+	void setUp() {
+		logFile = directory.resolve("application.log");
+		indexService = new LogIndexService(logFile.toString());
+	}
+
+	@Test
+	void partialLastLineIsIndexedOnceCompleted() throws IOException {
+		write("2026-10-17T10:00:00 first\n2026-10-18T09:00:00 unfinished");
+		indexService.load();
+
+		assertEquals("2026-10-17T10:00:00 first\n", contentOf(indexService.findRange(DAY)));
+		assertNull(indexService.findRange(NEXT_DAY));
+
+		append(" line\n");
+		assertEquals("2026-10-18T09:00:00 unfinished line\n", contentOf(indexService.findRange(NEXT_DAY)));
+	}
+
+	@Test
+	void dayEndsWhereNextDayStarts() throws IOException {
+		String lastHour = "2026-10-17 23:59:59 before midnight\n";
+		String nextDay = "2026-10-18 00:00:00 after midnight\n";
+		write("2026-10-17 22:00:00 evening\n" + lastHour + nextDay);
+		indexService.load();
+
+		LogService.LogRange day = indexService.findRange(DAY);
+		LogService.LogRange next = indexService.findRange(NEXT_DAY);
+
+		assertEquals("2026-10-17 22:00:00 evening\n" + lastHour, contentOf(day));
+		assertEquals(nextDay, contentOf(next));
+		assertEquals(day.end(), next.start());
+		assertNull(indexService.findRange(DAY.minusDays(1)));
+	}
+
+	@Test
+	void unstampedLinesBelongToPrecedingEntry() throws IOException {
+		String failure = "2026-10-17T23:00:00 ERROR failed\n"
+				+ "java.lang.IllegalStateException: boom\n"
+				+ "\tat com.example.coffeeshop.Service.run(Service.java:1)\n";
+		write(failure + "2026-10-18T00:00:00 recovered\n");
+		indexService.load();
+
+		assertEquals(failure, contentOf(indexService.findRange(DAY)));
+		assertEquals("2026-10-18T00:00:00 recovered\n", contentOf(indexService.findRange(NEXT_DAY)));
+	}
+
+	@Test
+	void rotationIsDetectedByFingerprint() throws IOException {
+		write("2026-10-17T10:00:00 old file\n");
+		indexService.load();
+		LogService.LogRange before = indexService.findRange(DAY);
+		assertEquals("2026-10-17T10:00:00 old file\n", contentOf(before));
+
+		// Новый файл не короче прежнего, поэтому ротацию выдаёт только отпечаток начала
+		write("2026-10-18T10:00:00 new file, longer\n");
+		LogService.LogRange after = indexService.findRange(NEXT_DAY);
+
+		assertNull(indexService.findRange(DAY));
+		assertEquals("2026-10-18T10:00:00 new file, longer\n", contentOf(after));
+		assertNotEquals(before.etag(), after.etag());
+	}
+
+	@Test
+	void indexSurvivesRestart() throws IOException {
+		write("2026-10-17T10:00:00 first\n2026-10-18T09:00:00 second\n");
+		indexService.load();
+		LogService.LogRange before = indexService.findRange(NEXT_DAY);
+
+		LogIndexService restarted = new LogIndexService(logFile.toString());
+		restarted.load();
+
+		assertEquals(before, restarted.findRange(NEXT_DAY));
+	}
+
+	private void write(String content) throws IOException {
+		Files.writeString(logFile, content, StandardCharsets.UTF_8);
+	}
+
+	private void append(String content) throws IOException {
+		Files.writeString(logFile, content, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+	}
+
+	private String contentOf(LogService.LogRange range) throws IOException {
+		byte[] bytes = Files.readAllBytes(range.file());
+		return new String(Arrays.copyOfRange(bytes, (int) range.start(), (int) range.end()), StandardCharsets.UTF_8);
+	}
+}
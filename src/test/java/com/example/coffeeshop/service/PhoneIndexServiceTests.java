@@ -0,0 +1,92 @@
+package com.example.coffeeshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.coffeeshop.dto.CoffeeDto;
+import com.example.coffeeshop.dto.CreateOrderDto;
+import com.example.coffeeshop.dto.UserDto;
+import java.util.List;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class PhoneIndexServiceTests {
+
+	private static final String FORMATTED = "+375 44 700-00-01";
+	private static final String DIGITS = "375447000001";
+
+	@Autowired
+	private PhoneIndexService phoneIndexService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private CoffeeService coffeeService;
+
+	private Long coffeeId;
+	private Long formattedUserId;
+	private Long digitsUserId;
+
+	@BeforeEach
+	void setUp() {
+		CoffeeDto coffee = new CoffeeDto();
+		coffee.setName("Phone index coffee");
+		coffee.setType("test");
+		coffee.setPrice(1);
+		coffeeId = coffeeService.createCoffee(coffee).getId();
+		formattedUserId = createUserWithOrder(FORMATTED);
+	}
+
+	@AfterEach
+	void tearDown() {
+		userService.deleteUsers(digitsUserId == null ? List.of(formattedUserId) : List.of(formattedUserId, digitsUserId));
+		coffeeService.deleteCoffee(coffeeId);
+	}
+
+	@Test
+	void indexedNumberMatchesAnyFormatting() {
+		assertEquals(OptionalLong.of(formattedUserId), phoneIndexService.findUserId(DIGITS));
+		assertEquals(1, orderService.filterCarsByBrand(DIGITS).size());
+	}
+
+	@Test
+	void ambiguousNumberMatchesDigitsInDatabase() {
+		int ambiguousBefore = phoneIndexService.stats().getAmbiguousCount();
+		digitsUserId = createUserWithOrder(DIGITS);
+
+		// Оба пользователя с одинаковыми цифрами находятся при любой записи номера
+		assertEquals(ambiguousBefore + 1, phoneIndexService.stats().getAmbiguousCount());
+		assertEquals(OptionalLong.empty(), phoneIndexService.findUserId(DIGITS));
+		assertEquals(2, orderService.filterCarsByBrand(DIGITS).size());
+		assertEquals(2, orderService.filterCarsByBrand(FORMATTED).size());
+
+		// После удаления одного ключ снова однозначный
+		userService.deleteUsers(List.of(digitsUserId));
+		digitsUserId = null;
+		assertEquals(ambiguousBefore, phoneIndexService.stats().getAmbiguousCount());
+		assertEquals(OptionalLong.of(formattedUserId), phoneIndexService.findUserId(DIGITS));
+		assertEquals(1, orderService.filterCarsByBrand(DIGITS).size());
+	}
+
+	private Long createUserWithOrder(String phoneNumber) {
+		UserDto user = new UserDto();
+		user.setName("Phone index");
+		user.setPhoneNumber(phoneNumber);
+		user.setPasswordHash("x");
+		Long userId = userService.createUser(user).getId();
+
+		CreateOrderDto order = new CreateOrderDto();
+		order.setUserId(userId);
+		order.setCoffeesIds(List.of(coffeeId));
+		orderService.createOrder(order);
+		return userId;
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.coffeeshop.service;
+
+import com.example.coffeeshop.model.Coffee;
+import com.example.coffeeshop.model.Order;
+import com.example.coffeeshop.model.User;
+import com.example.coffeeshop.repository.CoffeeRepository;
+import com.example.coffeeshop.repository.OrderRepository;
+import com.example.coffeeshop.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Основа тестов на число SQL-запросов: H2, статистика Hibernate и откат данных после теста.
+ * Наследник готовит данные через create-методы, затем вызывает {@link #startCounting()}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+abstract class QueryStatisticsTestBase {
+
+	@Autowired
+	protected UserRepository userRepository;
+
+	@Autowired
+	protected CoffeeRepository coffeeRepository;
+
+	@Autowired
+	protected OrderRepository orderRepository;
+
+	@Autowired
+	protected EntityManager entityManager;
+
+	protected Statistics statistics;
+
+	protected List<Coffee> createCoffees(String namePrefix, int count) {
+		List<Coffee> coffees = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Coffee coffee = new Coffee();
+			coffee.setName(namePrefix + " " + i);
+			coffee.setType("test");
+			coffee.setPrice(1 + i);
+			coffees.add(coffee);
+		}
+		return coffeeRepository.saveAll(coffees);
+	}
+
+	protected User createUser(String name, String phoneNumber) {
+		User user = new User();
+		user.setName(name);
+		user.setPhoneNumber(phoneNumber);
+		user.setPassword("x");
+		return userRepository.save(user);
+	}
+
+	protected List<Order> createOrders(User user, List<Coffee> coffees, int count) {
+		List<Order> orders = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Order order = new Order();
+			order.setUser(user);
+			order.setCoffees(coffees);
+			order.setNotes("order " + i);
+			orders.add(order);
+		}
+		return orderRepository.saveAll(orders);
+	}
+
+	/** Сбрасывает данные в БД, очищает контекст и счётчики: дальше считаются только запросы теста. */
+	protected void startCounting() {
+		entityManager.flush();
+		entityManager.clear();
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.coffeeshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+
+import com.example.coffeeshop.dto.UserImportResultDto;
+import com.example.coffeeshop.exception.PasswordHashingException;
+import com.example.coffeeshop.model.User;
+import com.example.coffeeshop.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+@SpringBootTest
+class UserImportServiceTests {
+
+	private static final String PHONE_PREFIX = "+37533019";
+
+	@Autowired
+	private UserImportService userImportService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockitoSpyBean
+	private UserRepository userRepository;
+
+	@MockitoSpyBean
+	private PasswordHasher passwordHasher;
+
+	@Autowired
+	private UserService userService;
+
+	@AfterEach
+	void tearDown() {
+		userService.deleteUsersByPhonePrefix(PHONE_PREFIX);
+	}
+
+	@Test
+	void reportsRowsInsertedConcurrentlyAsDuplicates() throws Exception {
+		User existing = new User();
+		existing.setName("Existing");
+		existing.setPhoneNumber(PHONE_PREFIX + "001");
+		existing.setPassword("x");
+		userRepository.save(existing);
+		// Проверка дублей не видит номер — как если бы его вставили сразу после неё
+		doReturn(List.of()).when(userRepository).findExistingPhoneNumbers(anyCollection());
+
+		List<UserImportResultDto> results = importCsv(PHONE_PREFIX + "000", PHONE_PREFIX + "001",
+				PHONE_PREFIX + "002");
+
+		assertEquals(List.of(UserImportResultDto.Status.CREATED, UserImportResultDto.Status.DUPLICATE,
+				UserImportResultDto.Status.CREATED), results.stream().map(UserImportResultDto::getStatus).toList());
+		assertEquals(3, userRepository.findByPhoneNumberStartingWithOrderById(PHONE_PREFIX).size());
+	}
+
+	@Test
+	void hashesOneByOneWhenPoolFails() throws Exception {
+		doThrow(new PasswordHashingException("Ошибка хеширования пароля", new IllegalStateException()))
+				.when(passwordHasher).hashAll(anyList());
+
+		List<UserImportResultDto> results = importCsv(PHONE_PREFIX + "010", PHONE_PREFIX + "011");
+
+		assertEquals(List.of(UserImportResultDto.Status.CREATED, UserImportResultDto.Status.CREATED),
+				results.stream().map(UserImportResultDto::getStatus).toList());
+	}
+
+	private List<UserImportResultDto> importCsv(String... phoneNumbers) throws Exception {
+		StringBuilder csv = new StringBuilder("name,phoneNumber,password\n");
+		for (String phoneNumber : phoneNumbers) {
+			csv.append("Imported,").append(phoneNumber).append(",secret\n");
+		}
+		StringWriter writer = new StringWriter();
+		userImportService.importUsers(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+				UserImportService.Format.CSV, writer);
+
+		List<UserImportResultDto> results = new ArrayList<>();
+		for (String line : writer.toString().split("\n")) {
+			results.add(objectMapper.readValue(line, UserImportResultDto.class));
+		}
+		return results;
+	}
+}
@@ -0,0 +1,62 @@
+package com.example.coffeeshop.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.example.coffeeshop.dto.UserWithRelationsDto;
+import com.example.coffeeshop.model.Coffee;
+import com.example.coffeeshop.model.User;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class UserRelationsQueryTests extends QueryStatisticsTestBase {
+
+	private static final int ORDER_COUNT = 1000;
+
+	@Autowired
+	private UserService userService;
+
+	private Long userId;
+
+	@BeforeEach
+	void setUp() {
+		List<Coffee> coffees = createCoffees("Relations coffee", 3);
+		User user = createUser("Relations", "+375000000018");
+		user.setFavoriteCoffees(Set.copyOf(coffees));
+		userId = user.getId();
+		createOrders(user, coffees, ORDER_COUNT);
+		startCounting();
+	}
+
+	@Test
+	void loadsRelationsWithOneQueryPerCollection() {
+		UserWithRelationsDto relations = userService.getUserWithRelations(userId, null, 100);
+
+		// Пользователь, избранное и страница заказов — без декартова произведения коллекций
+		assertEquals(3, statistics.getPrepareStatementCount());
+		assertEquals(3, relations.getFavoriteCoffees().size());
+		assertEquals(100, relations.getOrders().size());
+		assertEquals(relations.getOrders().get(99).getId(), relations.getNextOrdersCursor());
+	}
+
+	@Test
+	void pagesThroughAllOrders() {
+		int total = 0;
+		int pages = 0;
+		Long cursor = null;
+		do {
+			UserWithRelationsDto relations = userService.getUserWithRelations(userId, cursor, 300);
+			total += relations.getOrders().size();
+			cursor = relations.getNextOrdersCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(ORDER_COUNT, total);
+		assertEquals(4, pages);
+		assertEquals(3L * pages, statistics.getPrepareStatementCount());
+		assertNull(cursor);
+	}
+}